@@ -0,0 +1,23 @@
+package jobicade.gooey.bench;
+
+import java.util.List;
+
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.layout.GridLayout;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * A grid layout counting size requests.
+ */
+// package-private
+final class CountingGrid extends GridLayout<Layout> {
+    CountingGrid(List<Layout> cells, MajorAxis majorAxis) {
+        super(cells, majorAxis);
+    }
+
+    @Override
+    public Point requestSize(Point size) {
+        ++RequestCounter.count;
+        return super.requestSize(size);
+    }
+}
@@ -0,0 +1,50 @@
+package jobicade.gooey.bench;
+
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * A leaf wrapping one of the static layouts from {@link Layout}, counting size
+ * requests. The wrapped layout can be replaced to change the tree.
+ */
+// package-private
+final class CountingLeaf extends Layout {
+    private final Layout original;
+    private Layout delegate;
+
+    CountingLeaf(Layout delegate) {
+        this.original = delegate;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Switches between the original layout and one of any size with the same
+     * hint. Neither is larger than the other at its minimum, so bounds valid
+     * before the switch stay valid.
+     */
+    void toggle() {
+        delegate = delegate == original ? Layout.anySize(original.getSizeHint()) : original;
+    }
+
+    @Override
+    public void apply(Rect requestedBounds) {
+        setBounds(requestedBounds);
+    }
+
+    @Override
+    public boolean checkSize(Point size) {
+        return delegate.checkSize(size);
+    }
+
+    @Override
+    public Point requestSize(Point size) {
+        ++RequestCounter.count;
+        return delegate.requestSize(size);
+    }
+
+    @Override
+    public Point getSizeHint() {
+        return delegate.getSizeHint();
+    }
+}
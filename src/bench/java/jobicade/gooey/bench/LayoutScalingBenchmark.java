@@ -0,0 +1,186 @@
+package jobicade.gooey.bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.Layout;
+import jobicade.gooey.layout.SharedLayoutCache;
+
+/**
+ * Measures how layout cost grows with tree size and depth, writing one CSV row
+ * per tree shape and size.
+ *
+ * <p>Columns:
+ * <ul>
+ *   <li>{@code resize_apply_ns}: median time of {@link Layout#apply(Rect)}
+ *   when the root size changes, so every node moves
+ *   <li>{@code incremental_apply_ns}: median time of applying the same
+ *   bounds again after changing the constraints of one leaf
+ *   <li>{@code request_size_calls}: calls to {@code requestSize} in one apply
+ *   <li>{@code heap_bytes_per_node}: retained heap of the tree per node
+ *   <li>{@code plain_resize_ns} and {@code shared_resize_ns}: median resize
+ *   time of the same tree built without counting wrappers, through
+ *   {@link Layout#apply(Rect)} and through {@link SharedLayoutCache}
+ *   respectively. Both must give the same bounds or the run fails
+ *   <li>{@code shared_speedup}: the ratio of the two
+ * </ul>
+ *
+ * <p>Before any rows are written, {@link SharedLayoutCheck} compares the
+ * shared results with the layouts' own on random trees.
+ *
+ * <p>Per node columns stay flat for linear algorithms. Growth in them as the
+ * node count increases points to superlinear behaviour.
+ *
+ * <p>Usage: {@code LayoutScalingBenchmark [csv path] [max nodes]}
+ */
+public final class LayoutScalingBenchmark {
+    private LayoutScalingBenchmark() {}
+
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final long NODE_RUNS = 5_000_000;
+
+    public static void main(String[] args) throws IOException {
+        Path csv = Paths.get(args.length > 0 ? args[0] : "layout-scaling.csv");
+        int maxNodes = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+
+        if (csv.getParent() != null) {
+            Files.createDirectories(csv.getParent());
+        }
+
+        SharedLayoutCheck.run(500);
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+            String header = "shape,nodes,depth,resize_apply_ns,incremental_apply_ns,resize_ns_per_node,"
+                + "request_size_calls,calls_per_node,heap_bytes_per_node,"
+                + "plain_resize_ns,shared_resize_ns,shared_speedup";
+            out.println(header);
+            System.out.println(header);
+
+            for (TreeShape shape : TreeShape.values()) {
+                for (int size : SIZES) {
+                    if (size > maxNodes) {
+                        break;
+                    }
+                    String row = run(shape, size);
+                    out.println(row);
+                    out.flush();
+                    System.out.println(row);
+                }
+            }
+        }
+    }
+
+    private static String run(TreeShape shape, int size) {
+        long heapBefore = usedHeap();
+        TreeShape.Counts counts = new TreeShape.Counts();
+        Layout root = shape.build(size, counts);
+        long heap = usedHeap() - heapBefore;
+
+        Point minSize = root.getMinSize();
+        Rect small = Rect.bySize(Point.ZERO, root.requestSize(minSize.add(16, 16)));
+        Rect large = Rect.bySize(Point.ZERO, root.requestSize(minSize.add(32, 32)));
+
+        RequestCounter.reset();
+        root.apply(small);
+        long calls = RequestCounter.count;
+
+        int runs = (int)Math.max(3, Math.min(200, NODE_RUNS / counts.nodes));
+        long[] resizeTimes = new long[runs];
+        long[] incrementalTimes = new long[runs];
+
+        // The first round warms up the JIT and is discarded
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                root.apply(i % 2 == 0 ? large : small);
+                resizeTimes[i] = System.nanoTime() - start;
+            }
+            for (int i = 0; i < runs; i++) {
+                counts.lastLeaf.toggle();
+
+                long start = System.nanoTime();
+                root.apply(small);
+                incrementalTimes[i] = System.nanoTime() - start;
+            }
+        }
+
+        long resize = median(resizeTimes);
+        long incremental = median(incrementalTimes);
+        long[] shared = runShared(shape, size, runs);
+
+        return String.format("%s,%d,%d,%d,%d,%.2f,%d,%.2f,%.1f,%d,%d,%.2f",
+            shape, counts.nodes, counts.depth, resize, incremental,
+            (double)resize / counts.nodes,
+            calls, (double)calls / counts.nodes,
+            (double)heap / counts.nodes,
+            shared[0], shared[1], (double)shared[0] / shared[1]);
+    }
+
+    /**
+     * Times resizing two copies of a tree built without counting wrappers,
+     * one through its own methods and one through a
+     * {@link SharedLayoutCache}, and checks they end with the same bounds.
+     *
+     * @return The median plain and shared resize times.
+     */
+    private static long[] runShared(TreeShape shape, int size, int runs) {
+        TreeShape.Counts plainCounts = new TreeShape.Counts(false, true);
+        TreeShape.Counts sharedCounts = new TreeShape.Counts(false, true);
+        Layout plain = shape.build(size, plainCounts);
+        Layout shared = shape.build(size, sharedCounts);
+        SharedLayoutCache cache = new SharedLayoutCache(10_000);
+
+        Point minSize = plain.getMinSize();
+        Rect small = Rect.bySize(Point.ZERO, plain.requestSize(minSize.add(16, 16)));
+        Rect large = Rect.bySize(Point.ZERO, plain.requestSize(minSize.add(32, 32)));
+
+        long[] plainTimes = new long[runs];
+        long[] sharedTimes = new long[runs];
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < runs; i++) {
+                Rect bounds = i % 2 == 0 ? large : small;
+
+                long start = System.nanoTime();
+                plain.apply(bounds);
+                plainTimes[i] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                cache.apply(shared, bounds);
+                sharedTimes[i] = System.nanoTime() - start;
+            }
+        }
+
+        plain.apply(small);
+        cache.apply(shared, small);
+        for (int i = 0; i < plainCounts.layouts.size(); i++) {
+            if (!plainCounts.layouts.get(i).getBounds().equals(sharedCounts.layouts.get(i).getBounds())) {
+                throw new IllegalStateException("Shared layout differs for " + shape + " at node " + i);
+            }
+        }
+        return new long[] {median(plainTimes), median(sharedTimes)};
+    }
+
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        // Several collections give a more stable reading
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,15 @@
+package jobicade.gooey.bench;
+
+/**
+ * Counts calls to {@code requestSize} across all benchmark layouts.
+ */
+// package-private
+final class RequestCounter {
+    private RequestCounter() {}
+
+    static long count;
+
+    static void reset() {
+        count = 0;
+    }
+}
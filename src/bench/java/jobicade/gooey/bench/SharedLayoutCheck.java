@@ -0,0 +1,182 @@
+package jobicade.gooey.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import com.google.common.collect.Range;
+
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.GridLayout;
+import jobicade.gooey.layout.GridLayout.MajorAxis;
+import jobicade.gooey.layout.Layout;
+import jobicade.gooey.layout.SharedLayoutCache;
+import jobicade.gooey.layout.TrackSize;
+
+/**
+ * Checks that {@link SharedLayoutCache} gives the same sizes, bounds and hit
+ * testing as the layouts' own methods on random trees, including opaque
+ * layouts and trees changed between passes. Two copies of each tree are built from the same
+ * seed, one laid out by each.
+ *
+ * <p>Usage: {@code SharedLayoutCheck [trees]}
+ */
+// package-private
+final class SharedLayoutCheck {
+    private SharedLayoutCheck() {}
+
+    public static void main(String[] args) {
+        int trees = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        run(trees);
+        System.out.println("Shared layouts matched on " + trees + " trees");
+    }
+
+    /**
+     * @throws IllegalStateException If any result differs.
+     */
+    static void run(int trees) {
+        SharedLayoutCache cache = new SharedLayoutCache(1_000);
+
+        for (int seed = 0; seed < trees; seed++) {
+            Tree expected = new Tree(seed);
+            Tree actual = new Tree(seed);
+            Random random = new Random(~seed);
+
+            // Later passes change the trees to check stale shapes are not used
+            for (int pass = 0; pass < 3; pass++) {
+                if (pass > 0) {
+                    int mutation = random.nextInt();
+                    expected.mutate(mutation);
+                    actual.mutate(mutation);
+                }
+                Point minSize = expected.root.getMinSize();
+                check(seed, minSize.equals(cache.getMinSize(actual.root)));
+
+                Point size = expected.root.requestSize(minSize.add(random.nextInt(40), random.nextInt(40)));
+                check(seed, size.equals(cache.requestSize(actual.root, size)));
+
+                Rect bounds = Rect.bySize(new Point(random.nextInt(50), random.nextInt(50)), size);
+                expected.root.apply(bounds);
+                cache.apply(actual.root, bounds);
+
+                for (int i = 0; i < expected.layouts.size(); i++) {
+                    // Layouts removed from the tree keep their old bounds, or none
+                    check(seed, Objects.equals(expected.layouts.get(i).getBounds(), actual.layouts.get(i).getBounds()));
+                }
+                for (int i = 0; i < expected.grids.size(); i++) {
+                    for (int j = 0; j < 8; j++) {
+                        Point point = new Point(random.nextInt(100), random.nextInt(100));
+                        check(seed, expected.grids.get(i).getCellAt(point) == actual.grids.get(i).getCellAt(point));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void check(int seed, boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Shared layout differs for seed " + seed);
+        }
+    }
+
+    /**
+     * A random tree with small leaves, nested grids and some opaque layouts.
+     */
+    private static final class Tree {
+        private final Random random;
+        private final List<Layout> layouts = new ArrayList<>();
+        private final List<GridLayout<Layout>> grids = new ArrayList<>();
+        private final List<List<Layout>> cellLists = new ArrayList<>();
+        private final Layout root;
+
+        Tree(int seed) {
+            random = new Random(seed);
+            root = grid(4);
+        }
+
+        private Layout layout(int depth) {
+            return depth == 0 || random.nextInt(3) == 0 ? leaf() : grid(depth);
+        }
+
+        private Layout leaf() {
+            Layout layout;
+
+            switch (random.nextInt(4)) {
+                case 0:
+                    layout = Layout.fixedSize(new Point(1 + random.nextInt(6), 1 + random.nextInt(6)));
+                    break;
+                case 1:
+                    layout = Layout.anySize(new Point(2, 2));
+                    break;
+                case 2:
+                    layout = Layout.sizeRange(new Point(3, 3), Range.closed(1, 9), Range.atLeast(2));
+                    break;
+                default:
+                    // Opaque to the cache
+                    layout = new CountingLeaf(Layout.fixedSize(new Point(1 + random.nextInt(4), 2)));
+                    break;
+            }
+            layouts.add(layout);
+            return layout;
+        }
+
+        private Layout grid(int depth) {
+            List<Layout> cells = new ArrayList<>();
+            GridLayout<Layout> grid = new GridLayout<>(cells, random.nextBoolean() ? MajorAxis.ROW : MajorAxis.COLUMN);
+            layouts.add(grid);
+            grids.add(grid);
+            cellLists.add(cells);
+
+            // Repeating a seed gives groups of identical subtrees
+            int count = 1 + random.nextInt(5);
+            long subtreeSeed = random.nextLong();
+            boolean repeat = random.nextBoolean();
+
+            for (int i = 0; i < count; i++) {
+                if (repeat) {
+                    random.setSeed(subtreeSeed);
+                }
+                cells.add(layout(depth - 1));
+            }
+            grid.setLineSize(1 + random.nextInt(3));
+            grid.setCellAlignment(random.nextInt(5) / 4.0f, random.nextInt(5) / 4.0f);
+
+            if (random.nextInt(8) == 0) {
+                grid.setColumnTracks(Arrays.asList(TrackSize.auto(), TrackSize.fraction(1)));
+            }
+            return grid;
+        }
+
+        /**
+         * Changes a grid setting or a cell list, the same way for the same
+         * {@code mutation}.
+         */
+        void mutate(int mutation) {
+            Random choice = new Random(mutation);
+            int i = choice.nextInt(grids.size());
+
+            switch (choice.nextInt(4)) {
+                case 0:
+                    grids.get(i).setLineSize(1 + choice.nextInt(4));
+                    break;
+                case 1:
+                    grids.get(i).setCellAlignment(choice.nextFloat(), choice.nextFloat());
+                    break;
+                case 2:
+                    // Removing tracks leaves edges from the last layout to clear
+                    grids.get(i).setColumnTracks(choice.nextBoolean() ? null
+                        : Arrays.asList(TrackSize.fixed(1 + choice.nextInt(20)), TrackSize.fraction(1)));
+                    break;
+                default:
+                    List<Layout> cells = cellLists.get(i);
+                    Layout cell = Layout.fixedSize(new Point(1 + choice.nextInt(9), 1 + choice.nextInt(9)));
+                    cells.set(choice.nextInt(cells.size()), cell);
+                    layouts.add(cell);
+                    break;
+            }
+        }
+    }
+}
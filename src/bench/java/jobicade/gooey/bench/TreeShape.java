@@ -0,0 +1,166 @@
+package jobicade.gooey.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.Range;
+
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.layout.GridLayout;
+import jobicade.gooey.layout.GridLayout.MajorAxis;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * Synthetic layout trees of a requested node count.
+ */
+// package-private
+enum TreeShape {
+    /** A single grid, roughly square, of fixed size leaves. */
+    WIDE_GRID {
+        @Override
+        Layout build(int nodes, Counts counts) {
+            int leaves = Math.max(1, nodes - 1);
+            List<Layout> cells = new ArrayList<>(leaves);
+
+            for (int i = 0; i < leaves; i++) {
+                cells.add(leaf(Layout.fixedSize(new Point(8, 8)), counts, 2));
+            }
+            GridLayout<Layout> grid = grid(cells, MajorAxis.ROW, counts);
+            grid.setLineSize((int)Math.ceil(Math.sqrt(leaves)));
+            return node(grid, counts, 1);
+        }
+    },
+    /** A column of identical rows of mixed leaves, like a list or inventory. */
+    REPEATED_ROWS {
+        @Override
+        Layout build(int nodes, Counts counts) {
+            int rows = Math.max(1, (nodes - 1) / 5);
+            List<Layout> cells = new ArrayList<>(rows);
+
+            for (int i = 0; i < rows; i++) {
+                List<Layout> row = new ArrayList<>(4);
+                row.add(leaf(Layout.fixedSize(new Point(16, 16)), counts, 3));
+                row.add(leaf(Layout.sizeRange(new Point(40, 10), Range.atLeast(20), Range.closed(8, 12)), counts, 3));
+                row.add(leaf(Layout.anySize(new Point(4, 4)), counts, 3));
+                row.add(leaf(Layout.fixedSize(new Point(8, 8)), counts, 3));
+
+                GridLayout<Layout> grid = grid(row, MajorAxis.ROW, counts);
+                grid.setCellAlignment(0.0f, 0.5f);
+                cells.add(node(grid, counts, 2));
+            }
+            GridLayout<Layout> list = grid(cells, MajorAxis.COLUMN, counts);
+            list.setLineSize(rows);
+            return node(list, counts, 1);
+        }
+    },
+    /** Binary nested grids alternating axis, with fixed size leaves. */
+    DEEP_GRID {
+        @Override
+        Layout build(int nodes, Counts counts) {
+            return nested(nodes, 2, false, 0, counts);
+        }
+    },
+    /** Nested grids of eight cells with a mix of static leaf kinds. */
+    MIXED {
+        @Override
+        Layout build(int nodes, Counts counts) {
+            return nested(nodes, 8, true, 0, counts);
+        }
+    };
+
+    /**
+     * Builds a tree with close to {@code nodes} nodes.
+     */
+    abstract Layout build(int nodes, Counts counts);
+
+    /**
+     * Builds nested grids with a total node count of {@code nodes}, splitting
+     * nodes between up to {@code fanout} children.
+     *
+     * @param mixed {@code true} to cycle through static leaf kinds, or
+     * {@code false} for only fixed size leaves.
+     */
+    Layout nested(int nodes, int fanout, boolean mixed, int depth, Counts counts) {
+        if (nodes <= 1) {
+            return mixed ? mixedLeaf(counts, depth + 1) : fixedLeaf(counts, depth + 1);
+        }
+        int remaining = nodes - 1;
+        int children = Math.min(fanout, remaining);
+        List<Layout> cells = new ArrayList<>(children);
+
+        for (int i = 0; i < children; i++) {
+            // Spread the remainder over the first children
+            int share = remaining / children + (i < remaining % children ? 1 : 0);
+            cells.add(nested(share, fanout, mixed, depth + 1, counts));
+        }
+
+        GridLayout<Layout> grid = grid(cells, depth % 2 == 0 ? MajorAxis.ROW : MajorAxis.COLUMN, counts);
+        grid.setLineSize((int)Math.ceil(Math.sqrt(children)));
+        return node(grid, counts, depth + 1);
+    }
+
+    private static Layout fixedLeaf(Counts counts, int depth) {
+        return leaf(Layout.fixedSize(new Point(8, 8)), counts, depth);
+    }
+
+    private static Layout mixedLeaf(Counts counts, int depth) {
+        switch (counts.nodes % 3) {
+            case 0:
+                return fixedLeaf(counts, depth);
+            case 1:
+                return leaf(Layout.anySize(new Point(4, 4)), counts, depth);
+            default:
+                return leaf(Layout.sizeRange(new Point(4, 4), Range.closed(2, 16), Range.closed(2, 16)), counts, depth);
+        }
+    }
+
+    private static Layout leaf(Layout layout, Counts counts, int depth) {
+        if (counts.counting) {
+            CountingLeaf leaf = new CountingLeaf(layout);
+            counts.lastLeaf = leaf;
+            return node(leaf, counts, depth);
+        }
+        return node(layout, counts, depth);
+    }
+
+    private static GridLayout<Layout> grid(List<Layout> cells, MajorAxis majorAxis, Counts counts) {
+        return counts.counting ? new CountingGrid(cells, majorAxis) : new GridLayout<>(cells, majorAxis);
+    }
+
+    private static Layout node(Layout layout, Counts counts, int depth) {
+        ++counts.nodes;
+        counts.depth = Math.max(counts.depth, depth);
+
+        if (counts.layouts != null) {
+            counts.layouts.add(layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Statistics about a built tree, and how to build it.
+     */
+    static final class Counts {
+        /**
+         * {@code true} to wrap layouts so they count size requests, or
+         * {@code false} for the plain layouts from {@link Layout}.
+         */
+        final boolean counting;
+        /** Every node in the order built, or {@code null} if not kept. */
+        final List<Layout> layouts;
+        /** The last counting leaf built, or {@code null} if not counting. */
+        CountingLeaf lastLeaf;
+
+        int nodes;
+        int depth;
+
+        Counts() {
+            this(true, false);
+        }
+
+        Counts(boolean counting, boolean keepLayouts) {
+            this.counting = counting;
+            this.layouts = keepLayouts ? new ArrayList<>() : null;
+        }
+    }
+}
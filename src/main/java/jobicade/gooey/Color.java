@@ -30,26 +30,50 @@ public final class Color {
 		return new Color(red, green, blue, alpha);
 	}
 
-	public int getRed() { return red; }
-	public int getGreen() { return green; }
-	public int getBlue() { return blue; }
-	public int getAlpha() { return alpha; }
+	public static Color unpackArgb(int argb) {
+		return new Color((argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff, argb >>> 24);
+	}
+
+	public int getRed() { return red & 0xff; }
+	public int getGreen() { return green & 0xff; }
+	public int getBlue() { return blue & 0xff; }
+	public int getAlpha() { return alpha & 0xff; }
 
-	public Color withRed(int red) { return new Color(red, green, blue, alpha); }
-	public Color withGreen(int green) { return new Color(red, green, blue, alpha); }
-	public Color withBlue(int blue) { return new Color(red, green, blue, alpha); }
-	public Color withAlpha(int alpha) { return new Color(red, green, blue, alpha); }
+	public Color withRed(int red) { return new Color(red, getGreen(), getBlue(), getAlpha()); }
+	public Color withGreen(int green) { return new Color(getRed(), green, getBlue(), getAlpha()); }
+	public Color withBlue(int blue) { return new Color(getRed(), getGreen(), blue, getAlpha()); }
+	public Color withAlpha(int alpha) { return new Color(getRed(), getGreen(), getBlue(), alpha); }
 
 	public int packRgb() {
-		return (red << 16) | (green << 8) | blue;
+		return (getRed() << 16) | (getGreen() << 8) | getBlue();
 	}
 
 	public int packRgba() {
-		return (red << 24) | (green << 16) | (blue << 8) | alpha;
+		return (getRed() << 24) | (getGreen() << 16) | (getBlue() << 8) | getAlpha();
 	}
 
 	public int packArgb() {
-		return (alpha << 24) | (red << 16) | (green << 8) | blue;
+		return (getAlpha() << 24) | (getRed() << 16) | (getGreen() << 8) | getBlue();
+	}
+
+	/**
+	 * Interpolates between two colors in linear space, avoiding the dark
+	 * fringes of interpolating gamma-encoded values.
+	 *
+	 * @param t Parameter between 0 (for {@code a}) and 1 (for {@code b}).
+	 * @see ColorSpace#lerpArgb(int, int, float)
+	 */
+	public static Color lerp(Color a, Color b, float t) {
+		return unpackArgb(ColorSpace.lerpArgb(a.packArgb(), b.packArgb(), t));
+	}
+
+	/**
+	 * Composites {@code src} over this color in linear space.
+	 *
+	 * @see ColorSpace#blendArgb(int, int)
+	 */
+	public Color blend(Color src) {
+		return unpackArgb(ColorSpace.blendArgb(packArgb(), src.packArgb()));
 	}
 
 	private static Color fromRgbF(float red, float green, float blue) {
@@ -80,4 +104,92 @@ public final class Color {
 			return fromRgbF(value, low, GooeyMath.lerp(value, low, t));
 		}
 	}
+
+	/**
+	 * @param hue Hue in degrees.
+	 * @param saturation HSL saturation between 0 and 1.
+	 * @param lightness Lightness between 0 and 1.
+	 */
+	public static Color fromHsl(float hue, float saturation, float lightness) {
+		saturation = GooeyMath.clamp(saturation);
+		lightness = GooeyMath.clamp(lightness);
+
+		// HSL and HSV share hue, so only saturation and value need converting
+		float value = lightness + saturation * Math.min(lightness, 1.0f - lightness);
+		float hsvSaturation = value == 0.0f ? 0.0f : 2.0f * (1.0f - lightness / value);
+
+		return fromHsv(hue, hsvSaturation, value);
+	}
+
+	/**
+	 * @return The hue in degrees, saturation and lightness of this color.
+	 * @see #fromHsl(float, float, float)
+	 */
+	public float[] toHsl() {
+		float r = getRed() / 255.0f;
+		float g = getGreen() / 255.0f;
+		float b = getBlue() / 255.0f;
+
+		float max = Math.max(r, Math.max(g, b));
+		float min = Math.min(r, Math.min(g, b));
+		float chroma = max - min;
+		float lightness = (max + min) / 2.0f;
+
+		float hue;
+		if (chroma == 0.0f) {
+			hue = 0.0f;
+		} else if (max == r) {
+			hue = GooeyMath.floorMod((g - b) / chroma * 60.0f, 360.0f);
+		} else if (max == g) {
+			hue = ((b - r) / chroma + 2.0f) * 60.0f;
+		} else {
+			hue = ((r - g) / chroma + 4.0f) * 60.0f;
+		}
+
+		float saturation = chroma == 0.0f ? 0.0f : chroma / (1.0f - Math.abs(2.0f * lightness - 1.0f));
+		return new float[] {hue, GooeyMath.clamp(saturation), lightness};
+	}
+
+	/**
+	 * Creates a color from OkLab coordinates, a perceptually uniform space.
+	 * Colors outside the sRGB gamut are clamped.
+	 *
+	 * @param lightness Perceptual lightness between 0 and 1.
+	 * @param a Green-red axis, roughly between -0.4 and 0.4.
+	 * @param b Blue-yellow axis, roughly between -0.4 and 0.4.
+	 */
+	public static Color fromOklab(float lightness, float a, float b) {
+		float l = lightness + 0.3963377774f * a + 0.2158037573f * b;
+		float m = lightness - 0.1055613458f * a - 0.0638541728f * b;
+		float s = lightness - 0.0894841775f * a - 1.2914855480f * b;
+		l = l * l * l;
+		m = m * m * m;
+		s = s * s * s;
+
+		return new Color(
+			ColorSpace.toSrgb(4.0767416621f * l - 3.3077115913f * m + 0.2309699292f * s),
+			ColorSpace.toSrgb(-1.2684380046f * l + 2.6097574011f * m - 0.3413193965f * s),
+			ColorSpace.toSrgb(-0.0041960863f * l - 0.7034186147f * m + 1.7076147010f * s),
+			255);
+	}
+
+	/**
+	 * @return The OkLab lightness, a and b coordinates of this color.
+	 * @see #fromOklab(float, float, float)
+	 */
+	public float[] toOklab() {
+		float r = ColorSpace.toLinear(getRed()) / (float)ColorSpace.LINEAR_MAX;
+		float g = ColorSpace.toLinear(getGreen()) / (float)ColorSpace.LINEAR_MAX;
+		float b = ColorSpace.toLinear(getBlue()) / (float)ColorSpace.LINEAR_MAX;
+
+		float l = (float)Math.cbrt(0.4122214708f * r + 0.5363325363f * g + 0.0514459929f * b);
+		float m = (float)Math.cbrt(0.2119034982f * r + 0.6806995451f * g + 0.1073969566f * b);
+		float s = (float)Math.cbrt(0.0883024619f * r + 0.2817188376f * g + 0.6299787005f * b);
+
+		return new float[] {
+			0.2104542553f * l + 0.7936177850f * m - 0.0040720468f * s,
+			1.9779984951f * l - 2.4285922050f * m + 0.4505937099f * s,
+			0.0259040371f * l + 0.7827717662f * m - 0.8086757660f * s
+		};
+	}
 }
@@ -0,0 +1,121 @@
+package jobicade.gooey;
+
+/**
+ * Conversions between gamma-encoded sRGB and linear light using lookup tables,
+ * and gamma-correct operations on packed ARGB colors.
+ *
+ * <p>Linear values are stored in 16 bits (0 to {@value #LINEAR_MAX}) so that
+ * dark sRGB values survive a round trip. Converting back to sRGB indexes a
+ * table by the top {@value #LINEAR_TO_SRGB_BITS} bits of the linear value.
+ */
+public final class ColorSpace {
+    private ColorSpace() {}
+
+    /** The linear value corresponding to full intensity. */
+    public static final int LINEAR_MAX = 0xffff;
+
+    private static final int LINEAR_TO_SRGB_BITS = 12;
+    private static final int LINEAR_TO_SRGB_SHIFT = 16 - LINEAR_TO_SRGB_BITS;
+
+    private static final char[] SRGB_TO_LINEAR = new char[256];
+    private static final byte[] LINEAR_TO_SRGB = new byte[1 << LINEAR_TO_SRGB_BITS];
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            SRGB_TO_LINEAR[i] = (char)Math.round(decode(i / 255.0) * LINEAR_MAX);
+        }
+
+        // Each entry covers a bucket of linear values, sampled at its center
+        for (int i = 0; i < LINEAR_TO_SRGB.length; i++) {
+            double center = ((i << LINEAR_TO_SRGB_SHIFT) + (1 << LINEAR_TO_SRGB_SHIFT) / 2.0) / LINEAR_MAX;
+            LINEAR_TO_SRGB[i] = (byte)Math.round(encode(Math.min(center, 1.0)) * 255.0);
+        }
+    }
+
+    private static double decode(double srgb) {
+        if (srgb <= 0.04045) {
+            return srgb / 12.92;
+        } else {
+            return Math.pow((srgb + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    private static double encode(double linear) {
+        if (linear <= 0.0031308) {
+            return linear * 12.92;
+        } else {
+            return 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+        }
+    }
+
+    /**
+     * @param srgb A gamma-encoded channel value between 0 and 255.
+     * @return The linear channel value between 0 and {@link #LINEAR_MAX}.
+     */
+    public static int toLinear(int srgb) {
+        return SRGB_TO_LINEAR[srgb & 0xff];
+    }
+
+    /**
+     * @param linear A linear channel value between 0 and {@link #LINEAR_MAX}.
+     * Values out of range are clamped.
+     * @return The gamma-encoded channel value between 0 and 255.
+     */
+    public static int toSrgb(int linear) {
+        return LINEAR_TO_SRGB[GooeyMath.clamp(linear, 0, LINEAR_MAX) >> LINEAR_TO_SRGB_SHIFT] & 0xff;
+    }
+
+    /**
+     * @param linear A linear channel value between 0 and 1.
+     * Values out of range are clamped.
+     * @return The gamma-encoded channel value between 0 and 255.
+     */
+    public static int toSrgb(float linear) {
+        return toSrgb(Math.round(GooeyMath.clamp(linear) * LINEAR_MAX));
+    }
+
+    /**
+     * Interpolates between two packed ARGB colors in linear space. Alpha is
+     * interpolated directly.
+     *
+     * @param t Parameter between 0 (for {@code a}) and 1 (for {@code b}).
+     * @return The interpolated packed ARGB color.
+     */
+    public static int lerpArgb(int a, int b, float t) {
+        int alpha = GooeyMath.lerp(a >>> 24, b >>> 24, t);
+        int red = lerpChannel(a >> 16, b >> 16, t);
+        int green = lerpChannel(a >> 8, b >> 8, t);
+        int blue = lerpChannel(a, b, t);
+
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    private static int lerpChannel(int a, int b, float t) {
+        return toSrgb(GooeyMath.lerp(toLinear(a), toLinear(b), t));
+    }
+
+    /**
+     * Composites {@code src} over {@code dst} in linear space, using straight
+     * (not premultiplied) alpha.
+     *
+     * @return The blended packed ARGB color.
+     */
+    public static int blendArgb(int dst, int src) {
+        int srcAlpha = src >>> 24;
+        int dstAlpha = (dst >>> 24) * (255 - srcAlpha) / 255;
+        int alpha = srcAlpha + dstAlpha;
+
+        if (alpha == 0) {
+            return 0;
+        }
+        int red = blendChannel(dst >> 16, dstAlpha, src >> 16, srcAlpha, alpha);
+        int green = blendChannel(dst >> 8, dstAlpha, src >> 8, srcAlpha, alpha);
+        int blue = blendChannel(dst, dstAlpha, src, srcAlpha, alpha);
+
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    private static int blendChannel(int dst, int dstAlpha, int src, int srcAlpha, int alpha) {
+        return toSrgb((toLinear(src) * srcAlpha + toLinear(dst) * dstAlpha) / alpha);
+    }
+}
@@ -19,7 +19,8 @@ public final class GooeyMath {
     }
 
     public static int ceilDiv(int a, int b) {
-        return (a + b - 1) / b;
+        // a + b - 1 would overflow for large b, such as unbounded grid lines
+        return -Math.floorDiv(-a, b);
     }
 
     public static int clamp(int x, int min, int max) {
@@ -52,12 +53,12 @@ public final class GooeyMath {
         }
 
         if (range.hasLowerBound()) {
-            return Math.max(x, lowerBound(range));
-        } else if (range.hasUpperBound()) {
-            return Math.min(x, upperBound(range));
-        } else {
-            return x;
+            x = Math.max(x, lowerBound(range));
+        }
+        if (range.hasUpperBound()) {
+            x = Math.min(x, upperBound(range));
         }
+        return x;
     }
 
     public static int lowerBound(Range<Integer> range) {
@@ -0,0 +1,33 @@
+package jobicade.gooey.animation;
+
+/**
+ * Maps linear progress through a tween to eased progress.
+ */
+public enum Easing {
+    /** Constant speed. */
+    LINEAR,
+    /** Starts slow and accelerates, quadratic. */
+    EASE_IN,
+    /** Starts fast and decelerates, quadratic. */
+    EASE_OUT,
+    /** Accelerates then decelerates, quadratic. */
+    EASE_IN_OUT;
+
+    /**
+     * @param t Linear progress between 0 and 1.
+     * @return Eased progress, 0 at 0 and 1 at 1.
+     */
+    public float apply(float t) {
+        // Constants share one class, so calls in a loop stay monomorphic
+        switch (this) {
+            case EASE_IN:
+                return t * t;
+            case EASE_OUT:
+                return t * (2.0f - t);
+            case EASE_IN_OUT:
+                return t < 0.5f ? 2.0f * t * t : 1.0f - 2.0f * (1.0f - t) * (1.0f - t);
+            default:
+                return t;
+        }
+    }
+}
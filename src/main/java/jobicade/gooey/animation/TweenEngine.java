@@ -0,0 +1,357 @@
+package jobicade.gooey.animation;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.ColorSpace;
+import jobicade.gooey.GooeyMath;
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * Animates many Rect and Color values at once. Active tweens are stored in
+ * parallel primitive arrays and advanced together by {@link #update(long)},
+ * which allocates nothing except the Rects passed to layout targets.
+ *
+ * <p>Each tween is identified by an {@code int} handle. A tween is removed
+ * after the update where it reaches its end value. The low bits of a handle
+ * index a table of active tweens and the high bits hold a generation, which
+ * changes each time the index is reused, so a stale handle is rejected
+ * instead of referring to a later tween. The generation wraps after 2048
+ * reuses of the same index. Colors are interpolated in linear space.
+ */
+public final class TweenEngine {
+    private static final byte KIND_RECT = 0;
+    private static final byte KIND_COLOR = 1;
+
+    /** The number of ints stored per tween for each value. */
+    private static final int STRIDE = 4;
+
+    /** The number of low bits of a handle holding its index. */
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    /** The generation mask, keeping handles positive. */
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+
+    private int size;
+    private byte[] kinds = new byte[16];
+    private Easing[] easings = new Easing[16];
+    private long[] startTimes = new long[16];
+    private long[] durations = new long[16];
+    private int[] from = new int[16 * STRIDE];
+    private int[] to = new int[16 * STRIDE];
+    private int[] current = new int[16 * STRIDE];
+    private boolean[] started = new boolean[16];
+
+    private Layout[] layoutTargets = new Layout[16];
+    private IntBuffer[] bufferTargets = new IntBuffer[16];
+    private int[] bufferIndices = new int[16];
+
+    /** The handle of the tween in each slot. */
+    private int[] handles = new int[16];
+    /** The slot of each handle index, or {@code -1} if the index is free. */
+    private int[] slots = new int[0];
+    /** The current generation of each handle index. */
+    private int[] generations = new int[0];
+    private int[] freeIndices = new int[0];
+    private int freeCount;
+
+    /**
+     * Starts a tween between two Rects, interpolating position and size.
+     *
+     * @param startNanos The time the tween starts, in the same time base as
+     * {@link #update(long)}. Tweens hold their start value until then.
+     * @return The handle of the new tween.
+     */
+    public int tweenRect(Rect from, Rect to, long startNanos, long durationNanos, Easing easing) {
+        int slot = add(KIND_RECT, startNanos, durationNanos, easing);
+        int i = slot * STRIDE;
+
+        this.from[i] = from.getX();
+        this.from[i + 1] = from.getY();
+        this.from[i + 2] = from.getWidth();
+        this.from[i + 3] = from.getHeight();
+        this.to[i] = to.getX();
+        this.to[i + 1] = to.getY();
+        this.to[i + 2] = to.getWidth();
+        this.to[i + 3] = to.getHeight();
+        System.arraycopy(this.from, i, current, i, STRIDE);
+
+        return handles[slot];
+    }
+
+    /**
+     * Starts a tween between two colors.
+     *
+     * @see #tweenRect(Rect, Rect, long, long, Easing)
+     */
+    public int tweenColor(Color from, Color to, long startNanos, long durationNanos, Easing easing) {
+        int slot = add(KIND_COLOR, startNanos, durationNanos, easing);
+
+        this.from[slot * STRIDE] = from.packArgb();
+        this.to[slot * STRIDE] = to.packArgb();
+        current[slot * STRIDE] = this.from[slot * STRIDE];
+
+        return handles[slot];
+    }
+
+    private int add(byte kind, long startNanos, long durationNanos, Easing easing) {
+        if (durationNanos < 0) {
+            throw new IllegalArgumentException("Negative duration");
+        }
+        if (size == kinds.length) {
+            grow();
+        }
+        int slot = size++;
+        int index = allocateIndex();
+        handles[slot] = (generations[index] << INDEX_BITS) | index;
+        slots[index] = slot;
+
+        kinds[slot] = kind;
+        easings[slot] = easing;
+        startTimes[slot] = startNanos;
+        durations[slot] = durationNanos;
+        started[slot] = false;
+        layoutTargets[slot] = null;
+        bufferTargets[slot] = null;
+
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = kinds.length * 2;
+
+        kinds = Arrays.copyOf(kinds, capacity);
+        easings = Arrays.copyOf(easings, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        from = Arrays.copyOf(from, capacity * STRIDE);
+        to = Arrays.copyOf(to, capacity * STRIDE);
+        current = Arrays.copyOf(current, capacity * STRIDE);
+        started = Arrays.copyOf(started, capacity);
+        layoutTargets = Arrays.copyOf(layoutTargets, capacity);
+        bufferTargets = Arrays.copyOf(bufferTargets, capacity);
+        bufferIndices = Arrays.copyOf(bufferIndices, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+    }
+
+    private int allocateIndex() {
+        if (freeCount > 0) {
+            return freeIndices[--freeCount];
+        }
+        int index = slots.length;
+        if (index > INDEX_MASK) {
+            throw new IllegalStateException("Too many tweens");
+        }
+        int capacity = Math.min(Math.max(16, index * 2), INDEX_MASK + 1);
+        slots = Arrays.copyOf(slots, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        Arrays.fill(slots, index, capacity, -1);
+
+        // All new indices but the first are free
+        freeIndices = Arrays.copyOf(freeIndices, capacity);
+        for (int i = capacity - 1; i > index; i--) {
+            freeIndices[freeCount++] = i;
+        }
+        return index;
+    }
+
+    /**
+     * @return The slot of an active handle, or {@code -1}.
+     */
+    private int findSlot(int handle) {
+        int index = handle & INDEX_MASK;
+
+        if (handle < 0 || index >= slots.length || generations[index] != handle >>> INDEX_BITS) {
+            return -1;
+        }
+        return slots[index];
+    }
+
+    private int getSlot(int handle) {
+        int slot = findSlot(handle);
+
+        if (slot == -1) {
+            throw new IllegalArgumentException("Inactive handle " + handle);
+        }
+        return slot;
+    }
+
+    /**
+     * Applies a tween's Rect to {@code layout} on each update where it
+     * changes. Replaces any other target.
+     */
+    public void setTarget(int handle, Layout layout) {
+        int slot = getSlot(handle);
+        if (kinds[slot] != KIND_RECT) {
+            throw new IllegalArgumentException("Not a Rect tween");
+        }
+        layoutTargets[slot] = layout;
+        bufferTargets[slot] = null;
+    }
+
+    /**
+     * Writes a tween's value to {@code buffer} on each update, without
+     * changing the buffer's position. Rects are written as X, Y, width and
+     * height at {@code index} onwards and colors as one packed ARGB int at
+     * {@code index}. Replaces any other target.
+     */
+    public void setTarget(int handle, IntBuffer buffer, int index) {
+        int slot = getSlot(handle);
+        bufferTargets[slot] = buffer;
+        bufferIndices[slot] = index;
+        layoutTargets[slot] = null;
+    }
+
+    /**
+     * @return {@code true} if {@code handle} refers to a tween which has not
+     * yet finished or been cancelled.
+     */
+    public boolean isActive(int handle) {
+        return findSlot(handle) != -1;
+    }
+
+    /**
+     * Removes a tween without writing any further values.
+     */
+    public void cancel(int handle) {
+        remove(getSlot(handle));
+    }
+
+    /**
+     * @return The number of active tweens.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The current value of a Rect tween.
+     */
+    public Rect getRect(int handle) {
+        int slot = getSlot(handle);
+        if (kinds[slot] != KIND_RECT) {
+            throw new IllegalArgumentException("Not a Rect tween");
+        }
+        int i = slot * STRIDE;
+        return Rect.bySize(current[i], current[i + 1], current[i + 2], current[i + 3]);
+    }
+
+    /**
+     * @return The current value of a color tween.
+     */
+    public Color getColor(int handle) {
+        int slot = getSlot(handle);
+        if (kinds[slot] != KIND_COLOR) {
+            throw new IllegalArgumentException("Not a color tween");
+        }
+        return Color.unpackArgb(current[slot * STRIDE]);
+    }
+
+    /**
+     * Advances every tween to {@code nowNanos}, writes values to targets and
+     * removes finished tweens.
+     */
+    public void update(long nowNanos) {
+        int slot = 0;
+
+        while (slot < size) {
+            long elapsed = nowNanos - startTimes[slot];
+
+            if (elapsed < 0) {
+                ++slot;
+                continue;
+            }
+            boolean finished = elapsed >= durations[slot];
+            float t = finished ? 1.0f : easings[slot].apply((float)elapsed / durations[slot]);
+            boolean changed = kinds[slot] == KIND_RECT ? updateRect(slot, t) : updateColor(slot, t);
+
+            if (changed || !started[slot]) {
+                started[slot] = true;
+                writeTarget(slot);
+            }
+
+            if (finished) {
+                remove(slot);
+            } else {
+                ++slot;
+            }
+        }
+    }
+
+    private boolean updateRect(int slot, float t) {
+        boolean changed = false;
+
+        for (int i = slot * STRIDE; i < slot * STRIDE + STRIDE; i++) {
+            int value = GooeyMath.lerp(from[i], to[i], t);
+
+            if (value != current[i]) {
+                current[i] = value;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private boolean updateColor(int slot, float t) {
+        int i = slot * STRIDE;
+        int value = ColorSpace.lerpArgb(from[i], to[i], t);
+
+        if (value != current[i]) {
+            current[i] = value;
+            return true;
+        }
+        return false;
+    }
+
+    private void writeTarget(int slot) {
+        int i = slot * STRIDE;
+
+        if (layoutTargets[slot] != null) {
+            layoutTargets[slot].apply(Rect.bySize(current[i], current[i + 1], current[i + 2], current[i + 3]));
+        } else if (bufferTargets[slot] != null) {
+            IntBuffer buffer = bufferTargets[slot];
+            int index = bufferIndices[slot];
+
+            if (kinds[slot] == KIND_RECT) {
+                buffer.put(index, current[i]);
+                buffer.put(index + 1, current[i + 1]);
+                buffer.put(index + 2, current[i + 2]);
+                buffer.put(index + 3, current[i + 3]);
+            } else {
+                buffer.put(index, current[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes the tween in {@code slot} by moving the last tween into it.
+     */
+    private void remove(int slot) {
+        int index = handles[slot] & INDEX_MASK;
+        slots[index] = -1;
+        generations[index] = (generations[index] + 1) & GENERATION_MASK;
+        freeIndices[freeCount++] = index;
+
+        int last = --size;
+        if (slot != last) {
+            kinds[slot] = kinds[last];
+            easings[slot] = easings[last];
+            startTimes[slot] = startTimes[last];
+            durations[slot] = durations[last];
+            System.arraycopy(from, last * STRIDE, from, slot * STRIDE, STRIDE);
+            System.arraycopy(to, last * STRIDE, to, slot * STRIDE, STRIDE);
+            System.arraycopy(current, last * STRIDE, current, slot * STRIDE, STRIDE);
+            started[slot] = started[last];
+            layoutTargets[slot] = layoutTargets[last];
+            bufferTargets[slot] = bufferTargets[last];
+            bufferIndices[slot] = bufferIndices[last];
+            handles[slot] = handles[last];
+            slots[handles[slot] & INDEX_MASK] = slot;
+        }
+        layoutTargets[last] = null;
+        bufferTargets[last] = null;
+        easings[last] = null;
+    }
+}
@@ -0,0 +1,137 @@
+package jobicade.gooey.geom;
+
+/**
+ * Integer arithmetic on 24.8 fixed-point values, for laying out with subpixel
+ * precision. A fixed-point value is an {@code int} holding a coordinate
+ * multiplied by {@link #ONE}, so the representable range is roughly
+ * {@code +-8,388,607} pixels with a precision of 1/256 pixel.
+ *
+ * <p>{@link Point} and {@link Rect} can hold fixed-point coordinates in place
+ * of pixels. Methods here converting to and from pixels name which they expect.
+ *
+ * @see jobicade.gooey.layout.Layout#applyFixed(Rect)
+ */
+public final class FixedPoint {
+    private FixedPoint() {}
+
+    /** The number of fractional bits. */
+    public static final int SHIFT = 8;
+    /** The fixed-point value of one pixel. */
+    public static final int ONE = 1 << SHIFT;
+    /** The fixed-point value of half a pixel. */
+    public static final int HALF = ONE >> 1;
+
+    public static int fromPixels(int pixels) {
+        return pixels << SHIFT;
+    }
+
+    public static int fromFloat(float x) {
+        return Math.round(x * ONE);
+    }
+
+    /**
+     * @return {@code fixed} rounded to the nearest pixel, halves rounding up.
+     */
+    public static int toPixels(int fixed) {
+        return (fixed + HALF) >> SHIFT;
+    }
+
+    /**
+     * @return {@code fixed} rounded down to a whole pixel.
+     */
+    public static int floor(int fixed) {
+        return fixed >> SHIFT;
+    }
+
+    public static float toFloat(int fixed) {
+        return (float)fixed / ONE;
+    }
+
+    /**
+     * @return The product of two fixed-point values, rounded to the nearest
+     * representable value.
+     */
+    public static int mul(int a, int b) {
+        return (int)(((long)a * b + HALF) >> SHIFT);
+    }
+
+    /**
+     * @return The quotient of two fixed-point values, rounded toward zero.
+     */
+    public static int div(int a, int b) {
+        return (int)(((long)a << SHIFT) / b);
+    }
+
+    /**
+     * @param t Fixed-point parameter between 0 (for {@code a}) and
+     * {@link #ONE} (for {@code b}).
+     */
+    public static int lerp(int a, int b, int t) {
+        return a + mul(b - a, t);
+    }
+
+    public static Point fromPixels(Point pixels) {
+        return new Point(fromPixels(pixels.getX()), fromPixels(pixels.getY()));
+    }
+
+    public static Point toPixels(Point fixed) {
+        return new Point(toPixels(fixed.getX()), toPixels(fixed.getY()));
+    }
+
+    public static Rect fromPixels(Rect pixels) {
+        return Rect.bySize(fromPixels(pixels.getX()), fromPixels(pixels.getY()),
+            fromPixels(pixels.getWidth()), fromPixels(pixels.getHeight()));
+    }
+
+    /**
+     * Snaps a fixed-point Rect to pixels by rounding each edge independently,
+     * so Rects sharing an edge before snapping still share it after. Rects
+     * with a whole pixel size keep that size.
+     */
+    public static Rect toPixels(Rect fixed) {
+        return Rect.byCorners(toPixels(fixed.getMinX()), toPixels(fixed.getMinY()),
+            toPixels(fixed.getMaxX()), toPixels(fixed.getMaxY()));
+    }
+
+    /**
+     * Scales each coordinate of a Point by fixed-point factors.
+     */
+    public static Point scale(Point point, int scaleX, int scaleY) {
+        return new Point(mul(point.getX(), scaleX), mul(point.getY(), scaleY));
+    }
+
+    /**
+     * Scales the position and size of a Rect by a fixed-point factor.
+     */
+    public static Rect scale(Rect rect, int scale) {
+        return Rect.byCorners(mul(rect.getMinX(), scale), mul(rect.getMinY(), scale),
+            mul(rect.getMaxX(), scale), mul(rect.getMaxY(), scale));
+    }
+
+    /**
+     * Interpolates a coordinate inside a fixed-point Rect.
+     *
+     * @param tx Fixed-point X parameter between 0 and {@link #ONE}.
+     * @param ty Fixed-point Y parameter between 0 and {@link #ONE}.
+     * @see Rect#interpolate(float, float)
+     */
+    public static Point interpolate(Rect rect, int tx, int ty) {
+        return new Point(
+            lerp(rect.getMinX(), rect.getMaxX(), tx),
+            lerp(rect.getMinY(), rect.getMaxY(), ty));
+    }
+
+    /**
+     * Moves a fixed-point Rect such that the corresponding interpolated points
+     * inside {@code rect} and {@code container} are aligned.
+     *
+     * @see Rect#alignInside(Rect, float, float)
+     */
+    public static Rect alignInside(Rect rect, Rect container, int tx, int ty) {
+        Point anchor = interpolate(container, tx, ty);
+
+        return rect.withPosition(anchor.sub(
+            mul(rect.getWidth(), tx),
+            mul(rect.getHeight(), ty)));
+    }
+}
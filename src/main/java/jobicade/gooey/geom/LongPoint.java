@@ -0,0 +1,102 @@
+package jobicade.gooey.geom;
+
+import java.io.Serializable;
+
+/**
+ * Represents an immutable 2D point in long precision, for coordinate spaces
+ * too large for {@link Point}. Arithmetic is exact and throws
+ * {@link ArithmeticException} instead of overflowing.
+ */
+public final class LongPoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final LongPoint ZERO = new LongPoint(0, 0);
+
+    private final long x, y;
+
+    public LongPoint(long x, long y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @return A LongPoint with the same coordinates as {@code point}.
+     */
+    public static LongPoint of(Point point) {
+        return new LongPoint(point.getX(), point.getY());
+    }
+
+    /**
+     * LongPoints are equal only to other LongPoints with equal X and Y.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof LongPoint) {
+            LongPoint point = (LongPoint)obj;
+            return x == point.x && y == point.y;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * LongPoints are equal only to other LongPoints with equal X and Y.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return (31 + Long.hashCode(x)) * 31 + Long.hashCode(y);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{x: %d, y: %d}",
+            getClass().getName(), x, y);
+    }
+
+    public long getX() {
+        return x;
+    }
+
+    public long getY() {
+        return y;
+    }
+
+    /**
+     * @return The sum of {@code this} and {@code point}.
+     */
+    public LongPoint add(LongPoint point) {
+        return add(point.x, point.y);
+    }
+
+    /**
+     * @return The sum of {@code this} and the point made of components
+     * {@code x} and {@code y}.
+     */
+    public LongPoint add(long x, long y) {
+        return new LongPoint(Math.addExact(this.x, x), Math.addExact(this.y, y));
+    }
+
+    /**
+     * @return The result of {@code this} subtracted by {@code point}.
+     */
+    public LongPoint sub(LongPoint point) {
+        return sub(point.x, point.y);
+    }
+
+    /**
+     * @return The result of {@code this} subtracted by the point made of
+     * components {@code x} and {@code y}.
+     */
+    public LongPoint sub(long x, long y) {
+        return new LongPoint(Math.subtractExact(this.x, x), Math.subtractExact(this.y, y));
+    }
+
+    /**
+     * @return This point in integer precision.
+     * @throws ArithmeticException If either coordinate does not fit in an
+     * {@code int}.
+     */
+    public Point toPoint() {
+        return new Point(Math.toIntExact(x), Math.toIntExact(y));
+    }
+}
@@ -0,0 +1,246 @@
+package jobicade.gooey.geom;
+
+import java.io.Serializable;
+
+/**
+ * Represents an immutable axis-aligned rectangle in long precision, for
+ * coordinate spaces too large for {@link Rect}. It follows the same rules as
+ * {@link Rect}, but every Rect has a maximum corner within range and
+ * operations throw {@link ArithmeticException} instead of overflowing.
+ *
+ * @see TiledCanvas
+ */
+public final class LongRect implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final LongRect ZERO = new LongRect(0, 0, 0, 0);
+
+    private final long x;
+    private final long y;
+    private final long width;
+    private final long height;
+
+    private LongRect(long x, long y, long width, long height) {
+        if (width < 0) {
+            throw new IllegalArgumentException("width < 0");
+        }
+        if (height < 0) {
+            throw new IllegalArgumentException("height < 0");
+        }
+        // Ensures the max corner can always be computed
+        Math.addExact(x, width);
+        Math.addExact(y, height);
+
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * LongRects are equal only to other LongRects with the same dimensions.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof LongRect) {
+            LongRect rect = (LongRect)obj;
+            return x == rect.x && y == rect.y
+                && width == rect.width && height == rect.height;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * LongRects are equal only to other LongRects with the same dimensions.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return (((31 + Long.hashCode(x)) * 31 + Long.hashCode(y)) * 31
+            + Long.hashCode(width)) * 31 + Long.hashCode(height);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{x: %d, y: %d, width: %d, height: %d}",
+            getClass().getName(), x, y, width, height);
+    }
+
+    // region Creation
+
+    /**
+     * Creates a new LongRect using position and size.
+     *
+     * @throws IllegalArgumentException If the width or height is negative.
+     * @throws ArithmeticException If the max corner is out of range.
+     */
+    public static LongRect bySize(long x, long y, long width, long height) {
+        return new LongRect(x, y, width, height);
+    }
+
+    /**
+     * Creates a new LongRect using position and size.
+     *
+     * @throws IllegalArgumentException If the width or height is negative.
+     * @throws ArithmeticException If the max corner is out of range.
+     */
+    public static LongRect bySize(LongPoint position, LongPoint size) {
+        return new LongRect(position.getX(), position.getY(), size.getX(), size.getY());
+    }
+
+    /**
+     * Creates a new LongRect using its minimum and maximum corners.
+     *
+     * @throws IllegalArgumentException If a maximum is less than its minimum.
+     * @throws ArithmeticException If the size is out of range.
+     */
+    public static LongRect byCorners(long minX, long minY, long maxX, long maxY) {
+        return new LongRect(minX, minY, Math.subtractExact(maxX, minX), Math.subtractExact(maxY, minY));
+    }
+
+    /**
+     * @return A LongRect with the same dimensions as {@code rect}.
+     */
+    public static LongRect of(Rect rect) {
+        return new LongRect(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight());
+    }
+
+    // endregion
+
+    // region Getters
+
+    public long getX() {
+        return x;
+    }
+
+    public long getY() {
+        return y;
+    }
+
+    public long getWidth() {
+        return width;
+    }
+
+    public long getHeight() {
+        return height;
+    }
+
+    public long getMinX() {
+        return x;
+    }
+
+    public long getMinY() {
+        return y;
+    }
+
+    public long getMaxX() {
+        return x + width;
+    }
+
+    public long getMaxY() {
+        return y + height;
+    }
+
+    public LongPoint getMin() {
+        return new LongPoint(x, y);
+    }
+
+    public LongPoint getMax() {
+        return new LongPoint(x + width, y + height);
+    }
+
+    public LongPoint getSize() {
+        return new LongPoint(width, height);
+    }
+
+    // endregion
+
+    // region Operations
+
+    public LongRect translate(LongPoint offset) {
+        return translate(offset.getX(), offset.getY());
+    }
+
+    public LongRect translate(long x, long y) {
+        return new LongRect(Math.addExact(this.x, x), Math.addExact(this.y, y), width, height);
+    }
+
+    /**
+     * @return A copy of {@code this}, but padded by {@code padding} on each
+     * side.
+     */
+    public LongRect grow(long padding) {
+        return byCorners(
+            Math.subtractExact(x, padding), Math.subtractExact(y, padding),
+            Math.addExact(getMaxX(), padding), Math.addExact(getMaxY(), padding));
+    }
+
+    /**
+     * @return The smallest LongRect containing all points inside both
+     * {@code this} and {@code rect}.
+     */
+    public LongRect union(LongRect rect) {
+        return byCorners(
+            Math.min(x, rect.x), Math.min(y, rect.y),
+            Math.max(getMaxX(), rect.getMaxX()), Math.max(getMaxY(), rect.getMaxY()));
+    }
+
+    /**
+     * @return The largest LongRect containing only points inside both
+     * {@code this} and {@code rect}. If they do not intersect, the result is
+     * empty.
+     */
+    public LongRect intersect(LongRect rect) {
+        long minX = Math.max(x, rect.x);
+        long minY = Math.max(y, rect.y);
+        long maxX = Math.max(minX, Math.min(getMaxX(), rect.getMaxX()));
+        long maxY = Math.max(minY, Math.min(getMaxY(), rect.getMaxY()));
+
+        return new LongRect(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * Converts to a Rect in a local space whose origin is {@code origin}.
+     *
+     * @throws ArithmeticException If the result does not fit in a Rect.
+     */
+    public Rect toRect(LongPoint origin) {
+        int minX = Math.toIntExact(Math.subtractExact(x, origin.getX()));
+        int minY = Math.toIntExact(Math.subtractExact(y, origin.getY()));
+
+        return Rect.bySize(minX, minY,
+            Math.toIntExact(Math.addExact(minX, width)) - minX,
+            Math.toIntExact(Math.addExact(minY, height)) - minY);
+    }
+
+    // endregion
+
+    // region Conditionals
+
+    /**
+     * @return {@code true} if either width or height is zero.
+     */
+    public boolean isEmpty() {
+        return width == 0 || height == 0;
+    }
+
+    public boolean contains(LongPoint point) {
+        return contains(point.getX(), point.getY());
+    }
+
+    public boolean contains(long x, long y) {
+        return x >= this.x && x < getMaxX()
+            && y >= this.y && y < getMaxY();
+    }
+
+    /**
+     * @return {@code true} if the intersection with {@code rect} has a
+     * positive area.
+     */
+    public boolean overlaps(LongRect rect) {
+        return x < rect.getMaxX() && rect.x < getMaxX()
+            && y < rect.getMaxY() && rect.y < getMaxY();
+    }
+
+    // endregion
+}
@@ -0,0 +1,393 @@
+package jobicade.gooey.geom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Finds overlapping Rects in a collection using a sweep line, avoiding the
+ * cost of intersecting every pair.
+ *
+ * <p>Rects overlap if their intersection has a positive area, so Rects which
+ * only share an edge do not overlap and empty Rects overlap nothing.
+ */
+public final class OverlapDetector {
+    private OverlapDetector() {}
+
+    /**
+     * Finds every pair of overlapping Rects in O(n log n + k) expected time
+     * for {@code n} Rects and {@code k} pairs.
+     *
+     * @return The overlapping pairs, as indices into {@code rects}.
+     */
+    public static List<Pair> findOverlaps(List<Rect> rects) {
+        Rect[] array = rects.toArray(new Rect[0]);
+        long[] events = createEvents(array);
+        IntervalTree active = new IntervalTree(array);
+        List<Pair> pairs = new ArrayList<>();
+
+        for (long event : events) {
+            int i = eventIndex(event);
+
+            if (isStart(event)) {
+                active.findOverlaps(array[i].getMinY(), array[i].getMaxY(), i, pairs);
+                active.insert(i);
+            } else {
+                active.delete(i);
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Finds the area covered by at least two Rects, counting each point once
+     * however many Rects cover it. Takes O(n log n) time.
+     */
+    public static long getOverlapArea(List<Rect> rects) {
+        Rect[] array = rects.toArray(new Rect[0]);
+        long[] events = createEvents(array);
+        CoverageTree coverage = new CoverageTree(array);
+
+        long area = 0;
+        int lastX = 0;
+
+        for (long event : events) {
+            int x = eventX(event);
+            area += (long)coverage.getDoubleCovered() * (x - lastX);
+            lastX = x;
+
+            Rect rect = array[eventIndex(event)];
+            coverage.add(rect.getMinY(), rect.getMaxY(), isStart(event) ? 1 : -1);
+        }
+        return area;
+    }
+
+    // region Events
+
+    private static final long START_FLAG = 1L << 31;
+
+    /**
+     * Creates sorted start and end events for each non-empty Rect. Each event
+     * is packed as its X in the high bits, then a start flag, then the index,
+     * so at the same X ends are sorted before starts and touching Rects are
+     * never active together.
+     */
+    private static long[] createEvents(Rect[] rects) {
+        long[] events = new long[rects.length * 2];
+        int count = 0;
+
+        for (int i = 0; i < rects.length; i++) {
+            if (!rects[i].isEmpty()) {
+                events[count++] = ((long)rects[i].getMinX() << 32) | START_FLAG | i;
+                events[count++] = ((long)rects[i].getMaxX() << 32) | i;
+            }
+        }
+        events = Arrays.copyOf(events, count);
+        Arrays.sort(events);
+        return events;
+    }
+
+    private static int eventX(long event) {
+        return (int)(event >> 32);
+    }
+
+    private static boolean isStart(long event) {
+        return (event & START_FLAG) != 0;
+    }
+
+    private static int eventIndex(long event) {
+        return (int)(event & (START_FLAG - 1));
+    }
+
+    // endregion
+
+    /**
+     * A pair of overlapping Rects.
+     */
+    public static final class Pair {
+        private final int first;
+        private final int second;
+
+        // package-private
+        Pair(int a, int b) {
+            this.first = Math.min(a, b);
+            this.second = Math.max(a, b);
+        }
+
+        /**
+         * Pairs are equal only to other Pairs with the same indices.
+         * <p>{@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Pair) {
+                Pair pair = (Pair)obj;
+                return first == pair.first && second == pair.second;
+            }
+            return super.equals(obj);
+        }
+
+        /**
+         * Pairs are equal only to other Pairs with the same indices.
+         * <p>{@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return (31 + first) * 31 + second;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s{first: %d, second: %d}",
+                getClass().getName(), first, second);
+        }
+
+        /**
+         * @return The lower index of the pair.
+         */
+        public int getFirst() {
+            return first;
+        }
+
+        /**
+         * @return The higher index of the pair.
+         */
+        public int getSecond() {
+            return second;
+        }
+    }
+
+    /**
+     * Y intervals of the active Rects in a treap ordered by min Y, where each
+     * node also tracks the greatest max Y in its subtree. Nodes are identified
+     * by the index of their Rect.
+     */
+    private static final class IntervalTree {
+        private static final int NIL = -1;
+
+        private final Rect[] rects;
+        private final int[] left;
+        private final int[] right;
+        private final int[] priority;
+        private final int[] subtreeMaxY;
+        private int root = NIL;
+
+        IntervalTree(Rect[] rects) {
+            this.rects = rects;
+            left = new int[rects.length];
+            right = new int[rects.length];
+            priority = new int[rects.length];
+            subtreeMaxY = new int[rects.length];
+
+            // A fixed seed keeps the output order deterministic
+            Random random = new Random(rects.length);
+            for (int i = 0; i < rects.length; i++) {
+                priority[i] = random.nextInt();
+            }
+        }
+
+        private boolean less(int a, int b) {
+            int minA = rects[a].getMinY();
+            int minB = rects[b].getMinY();
+            return minA < minB || minA == minB && a < b;
+        }
+
+        private void update(int node) {
+            int max = rects[node].getMaxY();
+
+            if (left[node] != NIL) {
+                max = Math.max(max, subtreeMaxY[left[node]]);
+            }
+            if (right[node] != NIL) {
+                max = Math.max(max, subtreeMaxY[right[node]]);
+            }
+            subtreeMaxY[node] = max;
+        }
+
+        private int rotateRight(int node) {
+            int pivot = left[node];
+            left[node] = right[pivot];
+            right[pivot] = node;
+            update(node);
+            update(pivot);
+            return pivot;
+        }
+
+        private int rotateLeft(int node) {
+            int pivot = right[node];
+            right[node] = left[pivot];
+            left[pivot] = node;
+            update(node);
+            update(pivot);
+            return pivot;
+        }
+
+        void insert(int i) {
+            left[i] = NIL;
+            right[i] = NIL;
+            subtreeMaxY[i] = rects[i].getMaxY();
+            root = insert(root, i);
+        }
+
+        private int insert(int node, int i) {
+            if (node == NIL) {
+                return i;
+            }
+
+            if (less(i, node)) {
+                left[node] = insert(left[node], i);
+                if (priority[left[node]] > priority[node]) {
+                    return rotateRight(node);
+                }
+            } else {
+                right[node] = insert(right[node], i);
+                if (priority[right[node]] > priority[node]) {
+                    return rotateLeft(node);
+                }
+            }
+            update(node);
+            return node;
+        }
+
+        void delete(int i) {
+            root = delete(root, i);
+        }
+
+        private int delete(int node, int i) {
+            if (node == i) {
+                return merge(left[node], right[node]);
+            }
+
+            if (less(i, node)) {
+                left[node] = delete(left[node], i);
+            } else {
+                right[node] = delete(right[node], i);
+            }
+            update(node);
+            return node;
+        }
+
+        /**
+         * Joins two treaps where every key in {@code a} is less than every
+         * key in {@code b}.
+         */
+        private int merge(int a, int b) {
+            if (a == NIL) {
+                return b;
+            } else if (b == NIL) {
+                return a;
+            }
+
+            if (priority[a] > priority[b]) {
+                right[a] = merge(right[a], b);
+                update(a);
+                return a;
+            } else {
+                left[b] = merge(a, left[b]);
+                update(b);
+                return b;
+            }
+        }
+
+        void findOverlaps(int minY, int maxY, int i, List<Pair> pairs) {
+            findOverlaps(root, minY, maxY, i, pairs);
+        }
+
+        private void findOverlaps(int node, int minY, int maxY, int i, List<Pair> pairs) {
+            // No interval in this subtree reaches past minY
+            if (node == NIL || subtreeMaxY[node] <= minY) {
+                return;
+            }
+            findOverlaps(left[node], minY, maxY, i, pairs);
+
+            // Intervals to the right start at or after this one
+            if (rects[node].getMinY() < maxY) {
+                if (rects[node].getMaxY() > minY) {
+                    pairs.add(new Pair(node, i));
+                }
+                findOverlaps(right[node], minY, maxY, i, pairs);
+            }
+        }
+    }
+
+    /**
+     * Segment tree over the distinct Y edges of all Rects, tracking the length
+     * covered by at least one and at least two active Rects.
+     */
+    private static final class CoverageTree {
+        private final int[] ys;
+        private final int[] count;
+        private final int[] covered;
+        private final int[] doubleCovered;
+
+        CoverageTree(Rect[] rects) {
+            int[] edges = new int[rects.length * 2];
+            for (int i = 0; i < rects.length; i++) {
+                edges[i * 2] = rects[i].getMinY();
+                edges[i * 2 + 1] = rects[i].getMaxY();
+            }
+            Arrays.sort(edges);
+
+            int unique = 0;
+            for (int i = 0; i < edges.length; i++) {
+                if (i == 0 || edges[i] != edges[i - 1]) {
+                    edges[unique++] = edges[i];
+                }
+            }
+            ys = Arrays.copyOf(edges, unique);
+
+            int size = Math.max(1, 4 * ys.length);
+            count = new int[size];
+            covered = new int[size];
+            doubleCovered = new int[size];
+        }
+
+        int getDoubleCovered() {
+            return ys.length < 2 ? 0 : doubleCovered[1];
+        }
+
+        void add(int minY, int maxY, int delta) {
+            if (ys.length >= 2) {
+                add(1, 0, ys.length - 1, Arrays.binarySearch(ys, minY), Arrays.binarySearch(ys, maxY), delta);
+            }
+        }
+
+        /**
+         * Adds {@code delta} to the cover count of segments {@code [from, to)}
+         * under {@code node}, which spans segments {@code [lo, hi)}.
+         */
+        private void add(int node, int lo, int hi, int from, int to, int delta) {
+            if (to <= lo || hi <= from) {
+                return;
+            }
+
+            if (from <= lo && hi <= to) {
+                count[node] += delta;
+            } else {
+                int mid = (lo + hi) >>> 1;
+                add(node * 2, lo, mid, from, to, delta);
+                add(node * 2 + 1, mid, hi, from, to, delta);
+            }
+            pull(node, lo, hi);
+        }
+
+        private void pull(int node, int lo, int hi) {
+            int length = ys[hi] - ys[lo];
+            boolean leaf = hi - lo == 1;
+            int childCovered = leaf ? 0 : covered[node * 2] + covered[node * 2 + 1];
+            int childDoubleCovered = leaf ? 0 : doubleCovered[node * 2] + doubleCovered[node * 2 + 1];
+
+            if (count[node] >= 2) {
+                covered[node] = length;
+                doubleCovered[node] = length;
+            } else if (count[node] == 1) {
+                covered[node] = length;
+                doubleCovered[node] = childCovered;
+            } else {
+                covered[node] = childCovered;
+                doubleCovered[node] = childDoubleCovered;
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package jobicade.gooey.geom;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Places items on a canvas with long coordinates and finds those near a
+ * viewport, converted to ordinary Rects relative to the viewport. Memory and
+ * query cost depend on the number of items and the size of the viewport, not
+ * the extent of the canvas.
+ *
+ * <p>The canvas is divided into square tiles whose size is a power of two.
+ * Each item is stored in every tile it overlaps, except items covering many
+ * tiles, which are checked by every query. Only non-empty items can be found.
+ *
+ * <p>Each item may be on the canvas once, as determined by {@code equals}. To
+ * lay out visible layouts, apply each item to its
+ * {@link Visible#getBounds() bounds}, offset by the viewport's position on
+ * screen.
+ *
+ * @param <T> The type of items.
+ */
+public final class TiledCanvas<T> {
+    /**
+     * The exclusive maximum width or height of an item or viewport, such that
+     * any item overlapping a viewport fits in a Rect relative to it.
+     */
+    public static final long MAX_SIZE = 1L << 30;
+
+    /** The number of tiles an item may cover before it is stored separately. */
+    private static final long MAX_ITEM_TILES = 64;
+
+    private final int tileShift;
+
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+    private final Map<LongPoint, List<Entry<T>>> tiles = new HashMap<>();
+    private final List<Entry<T>> largeEntries = new ArrayList<>();
+
+    /**
+     * @param tileShift The base 2 logarithm of the tile size, between 0 and
+     * 30. Tiles around the size of typical items work best.
+     */
+    public TiledCanvas(int tileShift) {
+        if (tileShift < 0 || tileShift > 30) {
+            throw new IllegalArgumentException("Tile shift out of range");
+        }
+        this.tileShift = tileShift;
+    }
+
+    public int getTileSize() {
+        return 1 << tileShift;
+    }
+
+    /**
+     * @return The number of items on the canvas.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The bounds of {@code item}, or {@code null} if it is not on the
+     * canvas.
+     */
+    public LongRect getBounds(T item) {
+        Entry<T> entry = entries.get(item);
+        return entry != null ? entry.bounds : null;
+    }
+
+    /**
+     * Adds an item, or moves it if it is already on the canvas.
+     *
+     * @throws IllegalArgumentException If the width or height of
+     * {@code bounds} is at least {@link #MAX_SIZE}.
+     */
+    public void put(T item, LongRect bounds) {
+        if (bounds.getWidth() >= MAX_SIZE || bounds.getHeight() >= MAX_SIZE) {
+            throw new IllegalArgumentException("Item too large");
+        }
+        remove(item);
+
+        Entry<T> entry = new Entry<>(item, bounds);
+        entries.put(item, entry);
+
+        if (bounds.isEmpty()) {
+            return;
+        }
+        long minTileX = bounds.getMinX() >> tileShift;
+        long minTileY = bounds.getMinY() >> tileShift;
+        long maxTileX = (bounds.getMaxX() - 1) >> tileShift;
+        long maxTileY = (bounds.getMaxY() - 1) >> tileShift;
+
+        if ((maxTileX - minTileX + 1) * (maxTileY - minTileY + 1) > MAX_ITEM_TILES) {
+            largeEntries.add(entry);
+            return;
+        }
+        for (long tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (long tileX = minTileX; tileX <= maxTileX; tileX++) {
+                tiles.computeIfAbsent(new LongPoint(tileX, tileY), k -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code item} was on the canvas.
+     */
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+
+        if (entry == null) {
+            return false;
+        } else if (entry.bounds.isEmpty()) {
+            return true;
+        } else if (largeEntries.remove(entry)) {
+            return true;
+        }
+        LongRect bounds = entry.bounds;
+        long maxTileX = (bounds.getMaxX() - 1) >> tileShift;
+        long maxTileY = (bounds.getMaxY() - 1) >> tileShift;
+
+        for (long tileY = bounds.getMinY() >> tileShift; tileY <= maxTileY; tileY++) {
+            for (long tileX = bounds.getMinX() >> tileShift; tileX <= maxTileX; tileX++) {
+                LongPoint key = new LongPoint(tileX, tileY);
+                List<Entry<T>> tile = tiles.get(key);
+
+                tile.remove(entry);
+                if (tile.isEmpty()) {
+                    tiles.remove(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        entries.clear();
+        tiles.clear();
+        largeEntries.clear();
+    }
+
+    /**
+     * Finds the items overlapping {@code viewport}, each at most once, in no
+     * particular order. Only the tiles under the viewport are visited.
+     *
+     * @return The items, with bounds relative to the viewport's minimum
+     * corner.
+     * @throws IllegalArgumentException If the width or height of
+     * {@code viewport} is at least {@link #MAX_SIZE}.
+     */
+    public List<Visible<T>> getVisible(LongRect viewport) {
+        if (viewport.getWidth() >= MAX_SIZE || viewport.getHeight() >= MAX_SIZE) {
+            throw new IllegalArgumentException("Viewport too large");
+        }
+        List<Visible<T>> visible = new ArrayList<>();
+        if (viewport.isEmpty()) {
+            return visible;
+        }
+        LongPoint origin = viewport.getMin();
+
+        long minTileX = viewport.getMinX() >> tileShift;
+        long minTileY = viewport.getMinY() >> tileShift;
+        long maxTileX = (viewport.getMaxX() - 1) >> tileShift;
+        long maxTileY = (viewport.getMaxY() - 1) >> tileShift;
+
+        for (long tileY = minTileY; tileY <= maxTileY; tileY++) {
+            for (long tileX = minTileX; tileX <= maxTileX; tileX++) {
+                List<Entry<T>> tile = tiles.get(new LongPoint(tileX, tileY));
+                if (tile == null) {
+                    continue;
+                }
+
+                for (Entry<T> entry : tile) {
+                    LongRect bounds = entry.bounds;
+
+                    // An item spanning several tiles is found only in the
+                    // first tile of its overlap with the viewport
+                    if (bounds.overlaps(viewport)
+                            && Math.max(bounds.getMinX(), viewport.getMinX()) >> tileShift == tileX
+                            && Math.max(bounds.getMinY(), viewport.getMinY()) >> tileShift == tileY) {
+                        visible.add(new Visible<>(entry.item, bounds.toRect(origin)));
+                    }
+                }
+            }
+        }
+
+        for (Entry<T> entry : largeEntries) {
+            if (entry.bounds.overlaps(viewport)) {
+                visible.add(new Visible<>(entry.item, entry.bounds.toRect(origin)));
+            }
+        }
+        return visible;
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final LongRect bounds;
+
+        Entry(T item, LongRect bounds) {
+            this.item = item;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * An item overlapping a viewport.
+     *
+     * @param <T> The type of the item.
+     */
+    public static final class Visible<T> {
+        private final T item;
+        private final Rect bounds;
+
+        // package-private
+        Visible(T item, Rect bounds) {
+            this.item = item;
+            this.bounds = bounds;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * @return The bounds of the item relative to the viewport's minimum
+         * corner. Items may extend past the viewport on any side.
+         */
+        public Rect getBounds() {
+            return bounds;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package jobicade.gooey.layout;
+
+import jobicade.gooey.geom.Rect;
+
+/**
+ * Records a layout whose bounds changed during a layout pass.
+ *
+ * @see Layout#applyTracked(Rect)
+ */
+public final class BoundsChange {
+    private final Layout layout;
+    private final Rect oldBounds;
+    private final Rect newBounds;
+
+    // package-private
+    BoundsChange(Layout layout, Rect oldBounds, Rect newBounds) {
+        this.layout = layout;
+        this.oldBounds = oldBounds;
+        this.newBounds = newBounds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{layout: %s, oldBounds: %s, newBounds: %s}",
+            getClass().getName(), layout, oldBounds, newBounds);
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return The bounds before the change, or {@code null} if the layout had
+     * not been applied before.
+     */
+    public Rect getOldBounds() {
+        return oldBounds;
+    }
+
+    public Rect getNewBounds() {
+        return newBounds;
+    }
+}
@@ -0,0 +1,32 @@
+package jobicade.gooey.layout;
+
+import java.util.List;
+
+/**
+ * Receives changes to layout bounds.
+ *
+ * @see Layout#addBoundsListener(BoundsListener, Delivery)
+ */
+@FunctionalInterface
+public interface BoundsListener {
+    /**
+     * @param changes The changed layouts, in the order their bounds were set.
+     * The list is read-only and never empty.
+     */
+    void boundsChanged(List<BoundsChange> changes);
+
+    enum Delivery {
+        /**
+         * The listener is called as soon as the bounds of the layout it is
+         * registered on change, with a single change.
+         */
+        IMMEDIATE,
+        /**
+         * The listener is called once at the end of each tracked pass started
+         * on the layout it is registered on, with every change in the pass.
+         *
+         * @see Layout#applyTracked(jobicade.gooey.geom.Rect)
+         */
+        BATCH
+    }
+}
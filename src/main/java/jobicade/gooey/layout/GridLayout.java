@@ -1,8 +1,10 @@
 package jobicade.gooey.layout;
 
+import java.util.Arrays;
 import java.util.List;
 
 import jobicade.gooey.GooeyMath;
+import jobicade.gooey.geom.FixedPoint;
 import jobicade.gooey.geom.Point;
 import jobicade.gooey.geom.Rect;
 
@@ -18,6 +20,33 @@ public class GridLayout<T extends Layout> extends Layout {
         this.majorAxis = majorAxis;
     }
 
+    /**
+     * Incremented by every setter, so compiled plans can detect changes.
+     * Changes to the cell list itself are not counted.
+     */
+    private int modCount;
+
+    /**
+     * Incremented by every setter of any grid, so plans can skip checking
+     * their grids while no settings have changed.
+     */
+    private static int settingsVersion;
+
+    // package-private
+    int getModCount() {
+        return modCount;
+    }
+
+    // package-private
+    static int getSettingsVersion() {
+        return settingsVersion;
+    }
+
+    private void modified() {
+        ++modCount;
+        ++settingsVersion;
+    }
+
     private int lineSize = Integer.MAX_VALUE;
     /**
      * Sets the number of cells along the minor axis. After this amount, cells
@@ -28,6 +57,7 @@ public class GridLayout<T extends Layout> extends Layout {
             throw new IllegalArgumentException("Line must be at least 1 cell");
         }
         lineSize = size;
+        modified();
     }
 
     private float alignFactorX = 0.5f;
@@ -36,16 +66,88 @@ public class GridLayout<T extends Layout> extends Layout {
     public void setCellAlignment(float facX, float facY) {
         alignFactorX = facX;
         alignFactorY = facY;
+        modified();
+    }
+
+    private List<TrackSize> columnTracks;
+    private List<TrackSize> rowTracks;
+
+    /**
+     * Sizes each column separately instead of giving all cells the same size.
+     * Columns beyond the end of {@code tracks} are {@link TrackSize#auto()}.
+     *
+     * @param tracks The column sizes from left to right, or {@code null} to
+     * return to uniform cells if rows are also unset.
+     */
+    public void setColumnTracks(List<TrackSize> tracks) {
+        columnTracks = tracks;
+        modified();
+    }
+
+    /**
+     * Sizes each row separately instead of giving all cells the same size.
+     * Rows beyond the end of {@code tracks} are {@link TrackSize#auto()}.
+     *
+     * @param tracks The row sizes from top to bottom, or {@code null} to
+     * return to uniform cells if columns are also unset.
+     */
+    public void setRowTracks(List<TrackSize> tracks) {
+        rowTracks = tracks;
+        modified();
+    }
+
+    // package-private
+    boolean hasTracks() {
+        return columnTracks != null || rowTracks != null;
+    }
+
+    /**
+     * Pixel edges of each track from the last track layout relative to the
+     * grid's position, used for hit testing, or {@code null} for uniform
+     * cells. Relative edges stay valid when the grid is moved without being
+     * laid out again.
+     */
+    private int[] columnEdges;
+    private int[] rowEdges;
+
+    /**
+     * Forgets track edges from an earlier layout with tracks. Every path
+     * setting the bounds of a uniform grid must call this: {@link #apply(Rect)},
+     * {@link #applyFixed(Rect)}, {@link LayoutPlan}, {@link TimeSlicedLayout}
+     * and {@link SharedLayoutCache}.
+     */
+    // package-private
+    void clearTrackEdges() {
+        columnEdges = null;
+        rowEdges = null;
+    }
+
+    /**
+     * Only grids with uniform cells are staged, so track edges from an
+     * earlier layout with tracks no longer apply.
+     */
+    @Override
+    void stagedBoundsCommitted() {
+        clearTrackEdges();
     }
 
     @Override
     public void apply(Rect requestedBounds) {
+        if (hasTracks()) {
+            applyTracks(requestedBounds, false);
+            return;
+        }
+        clearTrackEdges();
+
         int width = requestedBounds.getWidth();
         int height = requestedBounds.getHeight();
 
         Point shape = getShape();
         Point cellStep = new Point(width / shape.getX(), height / shape.getY());
 
+        // Bounds are set first so an invalid size fails before any cell moves
+        setBounds(requestedBounds);
+
         for (int i = 0; i < cells.size(); i++) {
             Point cellSize = cells.get(i).requestSize(cellStep);
 
@@ -54,17 +156,298 @@ public class GridLayout<T extends Layout> extends Layout {
                 cellStep
             );
 
-            cells.get(i).setBounds(Rect.bySize(Point.ZERO, cellSize)
+            // Cells may have children of their own, so apply rather than set
+            cells.get(i).apply(Rect.bySize(Point.ZERO, cellSize)
                 .alignInside(outerCell, alignFactorX, alignFactorY));
         }
-        setBounds(requestedBounds);
+    }
+
+    /**
+     * Lays out cells at subpixel positions. Cells are given whole pixel sizes
+     * no larger than their fixed-point cell step.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public void applyFixed(Rect requestedBounds) {
+        if (hasTracks()) {
+            applyTracks(requestedBounds, true);
+            return;
+        }
+        clearTrackEdges();
+
+        Point shape = getShape();
+        int stepX = requestedBounds.getWidth() / shape.getX();
+        int stepY = requestedBounds.getHeight() / shape.getY();
+        Point pixelStep = new Point(FixedPoint.floor(stepX), FixedPoint.floor(stepY));
+
+        int alignX = FixedPoint.fromFloat(alignFactorX);
+        int alignY = FixedPoint.fromFloat(alignFactorY);
+
+        setBounds(FixedPoint.toPixels(requestedBounds));
+
+        for (int i = 0; i < cells.size(); i++) {
+            Point cellSize = FixedPoint.fromPixels(cells.get(i).requestSize(pixelStep));
+            Point cellPos = getCellPos(i);
+
+            Rect outerCell = Rect.bySize(
+                requestedBounds.getX() + cellPos.getX() * stepX,
+                requestedBounds.getY() + cellPos.getY() * stepY,
+                stepX, stepY);
+
+            cells.get(i).applyFixed(FixedPoint.alignInside(
+                Rect.bySize(Point.ZERO, cellSize), outerCell, alignX, alignY));
+        }
+    }
+
+    /**
+     * Lays out cells in tracks, in pixels or fixed-point units.
+     */
+    private void applyTracks(Rect requestedBounds, boolean fixed) {
+        int unit = fixed ? FixedPoint.ONE : 1;
+        Point shape = getShape();
+        int[] columnContent = new int[shape.getX()];
+        int[] rowContent = new int[shape.getY()];
+        measureTracks(columnContent, rowContent);
+
+        // Checked against the content already measured, as in requestSize
+        Rect pixelBounds = fixed ? FixedPoint.toPixels(requestedBounds) : requestedBounds;
+        if (pixelBounds.getWidth() < getMinTracksSize(columnTracks, columnContent)
+                || pixelBounds.getHeight() < getMinTracksSize(rowTracks, rowContent)) {
+            throw new IllegalArgumentException("Invalid size");
+        }
+
+        int[] columnOffsets = sizeTracks(columnTracks, columnContent, requestedBounds.getWidth(), unit);
+        int[] rowOffsets = sizeTracks(rowTracks, rowContent, requestedBounds.getHeight(), unit);
+
+        setBoundsUnchecked(pixelBounds);
+        columnEdges = toEdges(columnOffsets, requestedBounds.getX(), fixed);
+        rowEdges = toEdges(rowOffsets, requestedBounds.getY(), fixed);
+
+        int alignX = FixedPoint.fromFloat(alignFactorX);
+        int alignY = FixedPoint.fromFloat(alignFactorY);
+
+        for (int i = 0; i < cells.size(); i++) {
+            Point cellPos = getCellPos(i);
+            int column = cellPos.getX();
+            int row = cellPos.getY();
+
+            Rect outerCell = Rect.bySize(
+                requestedBounds.getX() + columnOffsets[column],
+                requestedBounds.getY() + rowOffsets[row],
+                columnOffsets[column + 1] - columnOffsets[column],
+                rowOffsets[row + 1] - rowOffsets[row]);
+
+            if (fixed) {
+                Point pixelSize = new Point(FixedPoint.floor(outerCell.getWidth()), FixedPoint.floor(outerCell.getHeight()));
+                Point cellSize = FixedPoint.fromPixels(cells.get(i).requestSize(pixelSize));
+
+                cells.get(i).applyFixed(FixedPoint.alignInside(
+                    Rect.bySize(Point.ZERO, cellSize), outerCell, alignX, alignY));
+            } else {
+                Point cellSize = cells.get(i).requestSize(outerCell.getSize());
+
+                cells.get(i).apply(Rect.bySize(Point.ZERO, cellSize)
+                    .alignInside(outerCell, alignFactorX, alignFactorY));
+            }
+        }
+    }
+
+    /**
+     * Finds the largest minimum cell size in each column and row, in one pass
+     * over the cells.
+     */
+    private void measureTracks(int[] columnContent, int[] rowContent) {
+        for (int i = 0; i < cells.size(); i++) {
+            Point minSize = cells.get(i).getMinSize();
+            Point cellPos = getCellPos(i);
+
+            columnContent[cellPos.getX()] = Math.max(columnContent[cellPos.getX()], minSize.getX());
+            rowContent[cellPos.getY()] = Math.max(rowContent[cellPos.getY()], minSize.getY());
+        }
+    }
+
+    private static TrackSize getTrack(List<TrackSize> tracks, int i) {
+        return tracks != null && i < tracks.size() ? tracks.get(i) : TrackSize.auto();
+    }
+
+    /**
+     * @param content The largest minimum cell size in each track, in pixels.
+     * @return The total size of the tracks with no extra space, in pixels.
+     */
+    private static int getMinTracksSize(List<TrackSize> tracks, int[] content) {
+        int size = 0;
+
+        for (int i = 0; i < content.length; i++) {
+            TrackSize track = getTrack(tracks, i);
+            size += track.getKind() == TrackSize.Kind.FIXED ? track.getValue() : content[i];
+        }
+        return size;
+    }
+
+    /**
+     * @param content The largest minimum cell size in each track, in pixels.
+     * @param available The space to fill, in units.
+     * @param unit The number of units in a pixel.
+     * @return Prefix sums of the track sizes in units, starting at zero and
+     * with one more element than {@code content}.
+     */
+    private static int[] sizeTracks(List<TrackSize> tracks, int[] content, int available, int unit) {
+        int[] offsets = new int[content.length + 1];
+        int totalWeight = 0;
+
+        // Offsets temporarily hold base sizes, one position along
+        for (int i = 0; i < content.length; i++) {
+            TrackSize track = getTrack(tracks, i);
+
+            if (track.getKind() == TrackSize.Kind.FIXED) {
+                offsets[i + 1] = track.getValue() * unit;
+            } else {
+                offsets[i + 1] = content[i] * unit;
+            }
+            if (track.getKind() == TrackSize.Kind.FRACTION) {
+                totalWeight += track.getValue();
+            }
+            available -= offsets[i + 1];
+        }
+
+        if (available > 0 && totalWeight > 0) {
+            int remainingWeight = totalWeight;
+
+            for (int i = 0; i < content.length; i++) {
+                TrackSize track = getTrack(tracks, i);
+
+                if (track.getKind() == TrackSize.Kind.FRACTION) {
+                    // Dividing what is left avoids losing space to rounding
+                    int share = (int)((long)available * track.getValue() / remainingWeight);
+                    offsets[i + 1] += share;
+                    available -= share;
+                    remainingWeight -= track.getValue();
+                }
+            }
+        }
+
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        return offsets;
+    }
+
+    /**
+     * @return The pixel edges of tracks relative to the pixel position of
+     * {@code origin}, rounded the same way as the bounds of the grid.
+     */
+    private static int[] toEdges(int[] offsets, int origin, boolean fixed) {
+        int[] edges = new int[offsets.length];
+
+        for (int i = 0; i < offsets.length; i++) {
+            edges[i] = fixed
+                ? FixedPoint.toPixels(origin + offsets[i]) - FixedPoint.toPixels(origin)
+                : offsets[i];
+        }
+        return edges;
+    }
+
+    /**
+     * Finds the cell containing a point, using the cell sizes from the last
+     * time the grid was applied and its current position, so the result
+     * follows {@link #translate(Point)} and relative parents. Grids with
+     * tracks use a binary search over the track edges.
+     *
+     * @return The index of the cell, or {@code -1} if no cell contains
+     * {@code point}.
+     */
+    public int getCellAt(Point point) {
+        Rect bounds = getBounds();
+        if (bounds == null || cells.isEmpty()) {
+            return -1;
+        }
+        int column;
+        int row;
+
+        if (columnEdges != null) {
+            column = findTrack(columnEdges, point.getX() - bounds.getX());
+            row = findTrack(rowEdges, point.getY() - bounds.getY());
+        } else {
+            Point shape = getShape();
+            column = findTrack(point.getX() - bounds.getX(), bounds.getWidth() / shape.getX(), shape.getX());
+            row = findTrack(point.getY() - bounds.getY(), bounds.getHeight() / shape.getY(), shape.getY());
+        }
+
+        if (column == -1 || row == -1) {
+            return -1;
+        }
+        int i = majorAxis == MajorAxis.ROW ? row * lineSize + column : column * lineSize + row;
+        return i < cells.size() ? i : -1;
+    }
+
+    /**
+     * @param x The offset from the grid's position.
+     */
+    private static int findTrack(int[] edges, int x) {
+        if (x < edges[0] || x >= edges[edges.length - 1]) {
+            return -1;
+        }
+        int i = Arrays.binarySearch(edges, x);
+
+        // Equal edges belong to empty tracks, so take the last one
+        if (i >= 0) {
+            while (i + 1 < edges.length && edges[i + 1] == x) {
+                ++i;
+            }
+            return i;
+        } else {
+            return -i - 2;
+        }
+    }
+
+    private static int findTrack(int offset, int step, int count) {
+        if (offset < 0 || step == 0) {
+            return -1;
+        }
+        int i = offset / step;
+        return i < count ? i : -1;
     }
 
     @Override
     public Point requestSize(Point size) {
+        if (hasTracks()) {
+            Point shape = getShape();
+            int[] columnContent = new int[shape.getX()];
+            int[] rowContent = new int[shape.getY()];
+            measureTracks(columnContent, rowContent);
+
+            return Point.biMax(size, new Point(
+                getMinTracksSize(columnTracks, columnContent),
+                getMinTracksSize(rowTracks, rowContent)));
+        }
         return Point.biMax(size, getShape().scale(getLargestCell()));
     }
 
+    // package-private
+    List<T> getCells() {
+        return cells;
+    }
+
+    // package-private
+    MajorAxis getMajorAxis() {
+        return majorAxis;
+    }
+
+    // package-private
+    int getLineSize() {
+        return lineSize;
+    }
+
+    // package-private
+    float getAlignFactorX() {
+        return alignFactorX;
+    }
+
+    // package-private
+    float getAlignFactorY() {
+        return alignFactorY;
+    }
+
     private Point getCellPos(int i) {
         if (majorAxis == MajorAxis.ROW) {
             return new Point(i % lineSize, i / lineSize);
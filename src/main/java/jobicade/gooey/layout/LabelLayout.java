@@ -0,0 +1,99 @@
+package jobicade.gooey.layout;
+
+import jobicade.gooey.GooeyMath;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.text.GlyphMetrics;
+import jobicade.gooey.text.MeasuredText;
+import jobicade.gooey.text.TextMeasurer;
+
+/**
+ * A layout sized to fit a string of text. Measurements come from a shared
+ * {@link TextMeasurer}, so labels whose text and width are unchanged are not
+ * measured again.
+ *
+ * <p>Without wrapping the only valid size is the size of the text on its
+ * lines. With wrapping any width from the widest word up to the unwrapped width
+ * is valid, and the height is that of the text wrapped to the width. The
+ * minimum size of a wrapping label therefore breaks lines only at spaces, so
+ * parents sizing cells from minimum sizes, such as {@link GridLayout}, do not
+ * squeeze it down to one character per line.
+ */
+public class LabelLayout extends Layout {
+    private final TextMeasurer measurer;
+    private final GlyphMetrics font;
+
+    private String text;
+    private boolean wrapping;
+
+    private Point naturalSize;
+    private int minWidth;
+
+    public LabelLayout(String text, GlyphMetrics font, TextMeasurer measurer) {
+        this.measurer = measurer;
+        this.font = font;
+        setText(text);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Changes the text. The label must be applied again for the change to
+     * take effect.
+     */
+    public void setText(String text) {
+        this.text = text;
+        naturalSize = measurer.measure(text, font, TextMeasurer.NO_WRAP).getSize();
+        minWidth = TextMeasurer.getWidestWord(text, font);
+    }
+
+    public GlyphMetrics getFont() {
+        return font;
+    }
+
+    public boolean isWrapping() {
+        return wrapping;
+    }
+
+    /**
+     * Allows the text to wrap onto more lines when the label is narrower than
+     * the text.
+     */
+    public void setWrapping(boolean wrapping) {
+        this.wrapping = wrapping;
+    }
+
+    /**
+     * @return The text broken into lines for the current bounds, or for the
+     * natural size if the label has not been applied.
+     */
+    public MeasuredText getMeasuredText() {
+        Rect bounds = getBounds();
+
+        if (wrapping && bounds != null && bounds.getWidth() < naturalSize.getX()) {
+            return measurer.measure(text, font, bounds.getWidth());
+        }
+        return measurer.measure(text, font, TextMeasurer.NO_WRAP);
+    }
+
+    @Override
+    public void apply(Rect requestedBounds) {
+        setBounds(requestedBounds);
+    }
+
+    @Override
+    public Point requestSize(Point size) {
+        if (!wrapping || size.getX() >= naturalSize.getX()) {
+            return naturalSize;
+        }
+        int width = GooeyMath.clamp(size.getX(), minWidth, naturalSize.getX());
+        return new Point(width, measurer.measure(text, font, width).getHeight());
+    }
+
+    @Override
+    public Point getSizeHint() {
+        return naturalSize;
+    }
+}
@@ -1,9 +1,15 @@
 package jobicade.gooey.layout;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import com.google.common.collect.Range;
 
+import jobicade.gooey.geom.FixedPoint;
 import jobicade.gooey.geom.Point;
 import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.BoundsListener.Delivery;
 
 /**
  * Tracks the position and size of a movable rectangular object. Code using a
@@ -35,11 +41,132 @@ public abstract class Layout {
         return new StaticLayout(sizeHint, widthRange, heightRange);
     }
 
+    /**
+     * Collects changes for the innermost tracked pass on each thread, or
+     * {@code null} outside of a tracked pass.
+     */
+    private static final ThreadLocal<List<BoundsChange>> trackedChanges = new ThreadLocal<>();
+
+    private List<BoundsListener> immediateListeners;
+    private List<BoundsListener> batchListeners;
+
+    /** The bounds, relative to the parent's position if there is one. */
     private Rect bounds;
+    private Layout parent;
+
+    /**
+     * The absolute bounds, resolved against the parent's absolute bounds in
+     * {@code resolvedParentBounds}. Rects are immutable, so the parent's
+     * bounds are the same instance until they change and act as its version.
+     */
+    private Rect absoluteBounds;
+    private Rect resolvedParentBounds;
+
+    /**
+     * Absolute bounds staged by a {@link TimeSlicedLayout} pass, which replace
+     * the bounds on first access after the pass is committed.
+     */
+    private Rect stagedBounds;
+    private StagedPass stagedPass;
+
+    /**
+     * @return The bounds in absolute coordinates. Bounds relative to a parent
+     * are resolved on first access after this layout or any of its relative
+     * ancestors changes, then cached.
+     */
     public final Rect getBounds() {
+        if (stagedPass != null) {
+            resolveStaged();
+        }
+        if (parent == null || bounds == null) {
+            return bounds;
+        }
+        Rect parentBounds = parent.getBounds();
+
+        if (parentBounds != resolvedParentBounds) {
+            absoluteBounds = bounds.translate(parentBounds.getPosition());
+            resolvedParentBounds = parentBounds;
+        }
+        return absoluteBounds;
+    }
+
+    /**
+     * @return The bounds relative to the position of the layout set by
+     * {@link #setRelativeTo(Layout)}, or the absolute bounds if there is none.
+     */
+    public final Rect getRelativeBounds() {
+        if (stagedPass != null) {
+            resolveStaged();
+        }
         return bounds;
     }
 
+    public final Layout getRelativeParent() {
+        return parent;
+    }
+
+    /**
+     * Stores bounds relative to {@code parent} instead of in absolute
+     * coordinates, so moving the parent with {@link #translate(Point)} also
+     * moves this layout without visiting it. The absolute bounds are kept.
+     * Bounds set while relative are still given in absolute coordinates, and
+     * the parent must have bounds before this layout does. Movement caused by
+     * the parent moving is not reported to bounds listeners of this layout.
+     *
+     * @param parent The layout to follow, or {@code null} to return to
+     * absolute coordinates.
+     * @throws IllegalArgumentException If this would create a cycle.
+     * @throws IllegalStateException If this layout has bounds and
+     * {@code parent} does not.
+     */
+    public final void setRelativeTo(Layout parent) {
+        for (Layout ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            if (ancestor == this) {
+                throw new IllegalArgumentException("Cyclic relative layouts");
+            }
+        }
+        Rect absolute = getBounds();
+
+        if (absolute != null) {
+            bounds = toRelative(parent, absolute);
+        }
+        this.parent = parent;
+        resolvedParentBounds = null;
+    }
+
+    private static Rect toRelative(Layout parent, Rect absolute) {
+        if (parent == null) {
+            return absolute;
+        }
+        Rect parentBounds = parent.getBounds();
+
+        if (parentBounds == null) {
+            throw new IllegalStateException("Relative parent has no bounds");
+        }
+        return absolute.translate(-parentBounds.getX(), -parentBounds.getY());
+    }
+
+    /**
+     * Moves this layout by {@code offset} without laying it out again. Layouts
+     * relative to this one, directly or indirectly, move with it, but only
+     * this layout's listeners are notified.
+     *
+     * @throws IllegalStateException If the layout has no bounds.
+     */
+    public final void translate(Point offset) {
+        if (stagedPass != null) {
+            resolveStaged();
+        }
+        if (bounds == null) {
+            throw new IllegalStateException("Layout has no bounds");
+        }
+        Rect oldBounds = getBounds();
+        bounds = bounds.translate(offset);
+        resolvedParentBounds = null;
+
+        fireBoundsChanged(oldBounds, getBounds());
+    }
+
     /**
      * The size of the bounds is checked during this method.
      *
@@ -50,7 +177,89 @@ public abstract class Layout {
         if (!checkSize(bounds.getSize())) {
             throw new IllegalArgumentException("Invalid size");
         }
-        this.bounds = bounds;
+        setBoundsUnchecked(bounds);
+    }
+
+    /**
+     * Sets bounds already known to be valid, such as those computed by a
+     * {@link LayoutPlan}.
+     */
+    // package-private
+    final void setBoundsUnchecked(Rect bounds) {
+        Rect oldBounds = getBounds();
+        // Bounds set directly replace those staged by an unfinished pass
+        stagedBounds = null;
+        stagedPass = null;
+        this.bounds = toRelative(parent, bounds);
+
+        if (!bounds.equals(oldBounds)) {
+            resolvedParentBounds = null;
+            fireBoundsChanged(oldBounds, bounds);
+        }
+    }
+
+    /**
+     * Stages bounds to be set when {@code pass} is committed, without
+     * changing the current bounds or notifying listeners.
+     */
+    // package-private
+    final void stageBounds(Rect bounds, StagedPass pass) {
+        stagedBounds = bounds;
+        stagedPass = pass;
+    }
+
+    private void resolveStaged() {
+        if (stagedPass.committed) {
+            Rect staged = stagedBounds;
+            stagedBounds = null;
+            stagedPass = null;
+
+            bounds = toRelative(parent, staged);
+            resolvedParentBounds = null;
+            stagedBoundsCommitted();
+        }
+    }
+
+    /**
+     * Called when bounds staged by a committed pass replace the bounds, before
+     * they are returned to any caller.
+     */
+    // package-private
+    void stagedBoundsCommitted() {}
+
+    /**
+     * Notifies listeners of the change made by a committed pass.
+     *
+     * @param oldBounds The bounds when the new bounds were staged.
+     */
+    // package-private
+    final void fireStagedChange(Rect oldBounds) {
+        Rect newBounds = getBounds();
+
+        if (!newBounds.equals(oldBounds)) {
+            fireBoundsChanged(oldBounds, newBounds);
+        }
+    }
+
+    private void fireBoundsChanged(Rect oldBounds, Rect newBounds) {
+        List<BoundsChange> pass = trackedChanges.get();
+
+        // Avoid allocating a change when nobody is listening
+        if (pass == null && immediateListeners == null) {
+            return;
+        }
+        BoundsChange change = new BoundsChange(this, oldBounds, newBounds);
+
+        if (pass != null) {
+            pass.add(change);
+        }
+        if (immediateListeners != null) {
+            List<BoundsChange> changes = Collections.singletonList(change);
+
+            for (BoundsListener listener : immediateListeners) {
+                listener.boundsChanged(changes);
+            }
+        }
     }
 
     /**
@@ -59,6 +268,89 @@ public abstract class Layout {
      */
     public abstract void apply(Rect requestedBounds);
 
+    /**
+     * Applies the layout with requested bounds in 24.8 fixed-point coordinates.
+     * Layouts with children keep subpixel positions while laying them out, and
+     * each layout snaps to pixels only when setting its own bounds, so scale
+     * factors do not accumulate rounding error through nested layouts.
+     *
+     * <p>The default implementation snaps the bounds to pixels and calls
+     * {@link #apply(Rect)}.
+     *
+     * @see FixedPoint#toPixels(Rect)
+     */
+    public void applyFixed(Rect requestedBounds) {
+        apply(FixedPoint.toPixels(requestedBounds));
+    }
+
+    /**
+     * Applies the layout as in {@link #apply(Rect)}, recording every layout
+     * whose bounds changed. Batch listeners registered on this layout are
+     * notified at the end of the pass. Tracked passes may be nested, in which
+     * case the outer pass also receives the changes of the inner pass.
+     *
+     * @return The changes in the order they were made.
+     * @see #addBoundsListener(BoundsListener, Delivery)
+     */
+    public final List<BoundsChange> applyTracked(Rect requestedBounds) {
+        List<BoundsChange> outerPass = trackedChanges.get();
+        List<BoundsChange> pass = new ArrayList<>();
+
+        trackedChanges.set(pass);
+        try {
+            apply(requestedBounds);
+        } finally {
+            if (outerPass != null) {
+                trackedChanges.set(outerPass);
+            } else {
+                trackedChanges.remove();
+            }
+        }
+
+        if (outerPass != null) {
+            outerPass.addAll(pass);
+        }
+        pass = Collections.unmodifiableList(pass);
+
+        if (batchListeners != null && !pass.isEmpty()) {
+            for (BoundsListener listener : batchListeners) {
+                listener.boundsChanged(pass);
+            }
+        }
+        return pass;
+    }
+
+    /**
+     * Registers a listener for bounds changes. Immediate listeners receive
+     * changes to this layout only, while batch listeners receive all changes
+     * from passes started with {@link #applyTracked(Rect)} on this layout.
+     */
+    public final void addBoundsListener(BoundsListener listener, Delivery delivery) {
+        if (delivery == Delivery.IMMEDIATE) {
+            if (immediateListeners == null) {
+                immediateListeners = new ArrayList<>(1);
+            }
+            immediateListeners.add(listener);
+        } else {
+            if (batchListeners == null) {
+                batchListeners = new ArrayList<>(1);
+            }
+            batchListeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener from both immediate and batch delivery.
+     */
+    public final void removeBoundsListener(BoundsListener listener) {
+        if (immediateListeners != null && immediateListeners.remove(listener) && immediateListeners.isEmpty()) {
+            immediateListeners = null;
+        }
+        if (batchListeners != null && batchListeners.remove(listener) && batchListeners.isEmpty()) {
+            batchListeners = null;
+        }
+    }
+
     /**
      * @return {@code true} if {@code size} is valid for this layout.
      */
@@ -88,4 +380,13 @@ public abstract class Layout {
     public final Point getMinSize() {
         return requestSize(Point.ZERO);
     }
+
+    /**
+     * Shared by all bounds staged in one pass, so they can be committed
+     * together in constant time.
+     */
+    // package-private
+    static final class StagedPass {
+        boolean committed;
+    }
 }
@@ -0,0 +1,438 @@
+package jobicade.gooey.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.collect.Range;
+
+import jobicade.gooey.GooeyMath;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.GridLayout.MajorAxis;
+
+/**
+ * A layout tree flattened into primitive arrays, laid out by a single loop
+ * instead of virtual calls through the tree. Results are identical to calling
+ * {@link Layout#apply(Rect)} on the root.
+ *
+ * <p>Nodes are stored in breadth-first order, so the children of each grid are
+ * contiguous and always follow their parent. Minimum sizes are measured once
+ * during compilation. Grids with uniform cells and static layouts are compiled;
+ * any other layout (including subclasses of {@link GridLayout} and grids with
+ * tracks) is kept as an opaque leaf which is measured and applied through its
+ * own methods.
+ *
+ * <p>A plan holds a snapshot of the tree structure, cell lists, line sizes and
+ * alignment. It can be executed any number of times, but must be compiled
+ * again when the structure changes. Executing fails if any grid's settings
+ * have changed, which costs nothing while no grid anywhere has been changed.
+ * Changes to the cells of a compiled grid are only detected by
+ * {@link #isStale()}, which walks the whole tree. Opaque layouts are measured during compilation, so changes to their size
+ * constraints other than grid settings are not detected.
+ */
+public final class LayoutPlan {
+    // package-private
+    static final byte OP_STATIC = 0;
+    // package-private
+    static final byte OP_GRID = 1;
+    // package-private
+    static final byte OP_OPAQUE = 2;
+
+    private final Layout[] layouts;
+    private final byte[] ops;
+    /**
+     * Four operands per node. Static: min width, max width, min height, max
+     * height. Grid: first child, child count, line size, major axis ordinal.
+     */
+    private final int[] operands;
+    /** Two alignment factors per grid node. */
+    private final float[] alignment;
+    /** Minimum width and height per node. */
+    private final int[] minSizes;
+    /** X, Y, width and height per node from the last execution. */
+    private final int[] bounds;
+    /** The modification count of each grid when compiled. */
+    private final int[] modCounts;
+    /**
+     * {@link GridLayout#getSettingsVersion()} when the grids' modification
+     * counts were last checked.
+     */
+    private int settingsVersion;
+
+    private boolean executed;
+
+    private LayoutPlan(List<Layout> nodes) {
+        int size = nodes.size();
+        layouts = nodes.toArray(new Layout[size]);
+        ops = new byte[size];
+        operands = new int[size * 4];
+        alignment = new float[size * 2];
+        minSizes = new int[size * 2];
+        bounds = new int[size * 4];
+        modCounts = new int[size];
+    }
+
+    /**
+     * Flattens the tree rooted at {@code root}.
+     */
+    public static LayoutPlan compile(Layout root) {
+        List<Layout> nodes = new ArrayList<>();
+        nodes.add(root);
+
+        // The list doubles as the breadth-first queue
+        for (int i = 0; i < nodes.size(); i++) {
+            Layout layout = nodes.get(i);
+
+            if (getOp(layout) == OP_GRID) {
+                nodes.addAll(((GridLayout<?>)layout).getCells());
+            }
+        }
+
+        LayoutPlan plan = new LayoutPlan(nodes);
+        plan.settingsVersion = GridLayout.getSettingsVersion();
+        int nextChild = 1;
+
+        for (int i = 0; i < plan.layouts.length; i++) {
+            Layout layout = plan.layouts[i];
+            byte op = getOp(layout);
+            plan.ops[i] = op;
+
+            if (layout instanceof GridLayout) {
+                plan.modCounts[i] = ((GridLayout<?>)layout).getModCount();
+            }
+
+            if (op == OP_STATIC) {
+                StaticLayout staticLayout = (StaticLayout)layout;
+                plan.operands[i * 4] = GooeyMath.lowerBound(staticLayout.getWidthRange());
+                plan.operands[i * 4 + 1] = upperBound(staticLayout.getWidthRange());
+                plan.operands[i * 4 + 2] = GooeyMath.lowerBound(staticLayout.getHeightRange());
+                plan.operands[i * 4 + 3] = upperBound(staticLayout.getHeightRange());
+            } else if (op == OP_GRID) {
+                GridLayout<?> grid = (GridLayout<?>)layout;
+                int childCount = grid.getCells().size();
+
+                plan.operands[i * 4] = nextChild;
+                plan.operands[i * 4 + 1] = childCount;
+                plan.operands[i * 4 + 2] = grid.getLineSize();
+                plan.operands[i * 4 + 3] = grid.getMajorAxis().ordinal();
+                plan.alignment[i * 2] = grid.getAlignFactorX();
+                plan.alignment[i * 2 + 1] = grid.getAlignFactorY();
+                nextChild += childCount;
+            }
+        }
+
+        // Children follow parents, so measuring in reverse is bottom-up
+        for (int i = plan.layouts.length - 1; i >= 0; i--) {
+            plan.measure(i);
+        }
+        return plan;
+    }
+
+    private static byte getOp(Layout layout) {
+        if (layout.getClass() == StaticLayout.class) {
+            return OP_STATIC;
+        } else if (layout.getClass() == GridLayout.class && isUniform((GridLayout<?>)layout)) {
+            return OP_GRID;
+        } else {
+            return OP_OPAQUE;
+        }
+    }
+
+    private static boolean isUniform(GridLayout<?> grid) {
+        return !grid.getCells().isEmpty() && !grid.hasTracks();
+    }
+
+    private static int upperBound(Range<Integer> range) {
+        return range.hasUpperBound() ? GooeyMath.upperBound(range) : Integer.MAX_VALUE;
+    }
+
+    private void measure(int node) {
+        switch (ops[node]) {
+            case OP_STATIC:
+                minSizes[node * 2] = operands[node * 4];
+                minSizes[node * 2 + 1] = operands[node * 4 + 2];
+                break;
+            case OP_GRID:
+                int first = operands[node * 4];
+                int end = first + operands[node * 4 + 1];
+                int largestWidth = 0;
+                int largestHeight = 0;
+
+                for (int child = first; child < end; child++) {
+                    largestWidth = Math.max(largestWidth, minSizes[child * 2]);
+                    largestHeight = Math.max(largestHeight, minSizes[child * 2 + 1]);
+                }
+                minSizes[node * 2] = getShapeX(node) * largestWidth;
+                minSizes[node * 2 + 1] = getShapeY(node) * largestHeight;
+                break;
+            default:
+                Point minSize = layouts[node].getMinSize();
+                minSizes[node * 2] = minSize.getX();
+                minSizes[node * 2 + 1] = minSize.getY();
+                break;
+        }
+    }
+
+    private int getShapeX(int grid) {
+        int childCount = operands[grid * 4 + 1];
+        int lineSize = operands[grid * 4 + 2];
+
+        if (operands[grid * 4 + 3] == MajorAxis.ROW.ordinal()) {
+            return Math.min(lineSize, childCount);
+        } else {
+            return GooeyMath.ceilDiv(childCount, lineSize);
+        }
+    }
+
+    private int getShapeY(int grid) {
+        int childCount = operands[grid * 4 + 1];
+        int lineSize = operands[grid * 4 + 2];
+
+        if (operands[grid * 4 + 3] == MajorAxis.ROW.ordinal()) {
+            return GooeyMath.ceilDiv(childCount, lineSize);
+        } else {
+            return Math.min(lineSize, childCount);
+        }
+    }
+
+    /**
+     * Checks whether the tree has changed since compilation, in time linear
+     * in the number of nodes.
+     *
+     * @return {@code true} if a grid's settings or the cells of a compiled
+     * grid have changed.
+     */
+    public boolean isStale() {
+        if (isModified()) {
+            return true;
+        }
+
+        for (int i = 0; i < layouts.length; i++) {
+            if (ops[i] == OP_GRID) {
+                List<? extends Layout> cells = ((GridLayout<?>)layouts[i]).getCells();
+                int first = operands[i * 4];
+                int childCount = operands[i * 4 + 1];
+
+                if (cells.size() != childCount) {
+                    return true;
+                }
+                for (int j = 0; j < childCount; j++) {
+                    if (cells.get(j) != layouts[first + j]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any grid's settings have changed since compilation. Grids
+     * are only visited if a setting of any grid has changed since the last
+     * check.
+     */
+    private boolean isModified() {
+        int version = GridLayout.getSettingsVersion();
+
+        if (version == settingsVersion) {
+            return false;
+        }
+        for (int i = 0; i < layouts.length; i++) {
+            if (layouts[i] instanceof GridLayout && ((GridLayout<?>)layouts[i]).getModCount() != modCounts[i]) {
+                return true;
+            }
+        }
+        settingsVersion = version;
+        return false;
+    }
+
+    /**
+     * @return The number of nodes in the plan.
+     */
+    public int size() {
+        return layouts.length;
+    }
+
+    /**
+     * @return The layout at {@code index} in breadth-first order, where the
+     * root is at index zero.
+     */
+    public Layout getLayout(int index) {
+        return layouts[index];
+    }
+
+    /**
+     * @return The bounds computed for the node at {@code index} by the last
+     * execution.
+     * @throws IllegalStateException If the plan has not been executed.
+     */
+    public Rect getBounds(int index) {
+        if (!executed) {
+            throw new IllegalStateException("Plan not executed");
+        }
+        return Rect.bySize(bounds[index * 4], bounds[index * 4 + 1],
+            bounds[index * 4 + 2], bounds[index * 4 + 3]);
+    }
+
+    /**
+     * Executes the plan and sets the bounds of every layout in the tree.
+     *
+     * @see #execute(Rect)
+     * @see #commit()
+     */
+    public void apply(Rect requestedBounds) {
+        execute(requestedBounds);
+        commit();
+    }
+
+    /**
+     * Computes the bounds of every node without changing the layouts.
+     *
+     * @throws IllegalArgumentException If {@code requestedBounds} has an
+     * invalid size for the root.
+     * @throws IllegalStateException If a grid's settings have changed since
+     * compilation.
+     * @see #isStale()
+     */
+    public void execute(Rect requestedBounds) {
+        begin(requestedBounds, bounds);
+        arrange(0, layouts.length, bounds);
+        executed = true;
+    }
+
+    /**
+     * Sets the bounds of every layout from the last execution, parents before
+     * children. Opaque layouts are applied, laying out their own children.
+     *
+     * @throws IllegalStateException If the plan has not been executed.
+     */
+    public void commit() {
+        for (int i = 0; i < layouts.length; i++) {
+            commit(i, getBounds(i));
+        }
+    }
+
+    /**
+     * Checks no grid's settings have changed and the root size is valid, then
+     * writes the root bounds into {@code out}.
+     */
+    // package-private
+    void begin(Rect requestedBounds, int[] out) {
+        if (isModified()) {
+            throw new IllegalStateException("Layout tree changed since the plan was compiled");
+        } else if (!checkSize(0, requestedBounds.getWidth(), requestedBounds.getHeight())) {
+            throw new IllegalArgumentException("Invalid size");
+        }
+        out[0] = requestedBounds.getX();
+        out[1] = requestedBounds.getY();
+        out[2] = requestedBounds.getWidth();
+        out[3] = requestedBounds.getHeight();
+    }
+
+    private boolean checkSize(int node, int width, int height) {
+        switch (ops[node]) {
+            case OP_STATIC:
+                return width >= operands[node * 4] && width <= operands[node * 4 + 1]
+                    && height >= operands[node * 4 + 2] && height <= operands[node * 4 + 3];
+            case OP_GRID:
+                return width >= minSizes[node * 2] && height >= minSizes[node * 2 + 1];
+            default:
+                return layouts[node].checkSize(new Point(width, height));
+        }
+    }
+
+    /**
+     * Computes child bounds for the nodes in {@code [start, end)}, whose own
+     * bounds must already be in {@code out}. Arranging every node in order
+     * lays out the whole tree.
+     */
+    // package-private
+    void arrange(int start, int end, int[] out) {
+        for (int node = start; node < end; node++) {
+            if (ops[node] == OP_GRID) {
+                arrangeChildren(node, 0, operands[node * 4 + 1], out);
+            }
+        }
+    }
+
+    /**
+     * @return The number of children of {@code node} arranged by the plan.
+     */
+    // package-private
+    int getChildCount(int node) {
+        return ops[node] == OP_GRID ? operands[node * 4 + 1] : 0;
+    }
+
+    /**
+     * Computes bounds for the children of a grid in {@code [from, to)}, so
+     * large grids can be arranged in several parts.
+     */
+    // package-private
+    void arrangeChildren(int node, int from, int to, int[] out) {
+        int x = out[node * 4];
+        int y = out[node * 4 + 1];
+        int stepX = out[node * 4 + 2] / getShapeX(node);
+        int stepY = out[node * 4 + 3] / getShapeY(node);
+
+        int first = operands[node * 4];
+        int lineSize = operands[node * 4 + 2];
+        boolean rowMajor = operands[node * 4 + 3] == MajorAxis.ROW.ordinal();
+        float alignX = alignment[node * 2];
+        float alignY = alignment[node * 2 + 1];
+
+        for (int i = from; i < to; i++) {
+            int child = first + i;
+            requestSize(child, stepX, stepY, out);
+
+            int col = rowMajor ? i % lineSize : i / lineSize;
+            int row = rowMajor ? i / lineSize : i % lineSize;
+            int cellX = x + col * stepX;
+            int cellY = y + row * stepY;
+
+            // Matches Rect.alignInside, including its rounding
+            out[child * 4] = GooeyMath.lerp(cellX, cellX + stepX, alignX)
+                - Math.round(out[child * 4 + 2] * alignX);
+            out[child * 4 + 1] = GooeyMath.lerp(cellY, cellY + stepY, alignY)
+                - Math.round(out[child * 4 + 3] * alignY);
+        }
+    }
+
+    /**
+     * Writes the size chosen by {@code node} in response to the given size.
+     */
+    private void requestSize(int node, int width, int height, int[] out) {
+        switch (ops[node]) {
+            case OP_STATIC:
+                out[node * 4 + 2] = Math.min(Math.max(width, operands[node * 4]), operands[node * 4 + 1]);
+                out[node * 4 + 3] = Math.min(Math.max(height, operands[node * 4 + 2]), operands[node * 4 + 3]);
+                break;
+            case OP_GRID:
+                out[node * 4 + 2] = Math.max(width, minSizes[node * 2]);
+                out[node * 4 + 3] = Math.max(height, minSizes[node * 2 + 1]);
+                break;
+            default:
+                Point size = layouts[node].requestSize(new Point(width, height));
+                out[node * 4 + 2] = size.getX();
+                out[node * 4 + 3] = size.getY();
+                break;
+        }
+    }
+
+    // package-private
+    boolean isOpaque(int node) {
+        return ops[node] == OP_OPAQUE;
+    }
+
+    // package-private
+    void commit(int node, Rect nodeBounds) {
+        if (ops[node] == OP_OPAQUE) {
+            layouts[node].apply(nodeBounds);
+        } else {
+            if (ops[node] == OP_GRID) {
+                // The grid may have had tracks when it was last applied
+                ((GridLayout<?>)layouts[node]).clearTrackEdges();
+            }
+            layouts[node].setBoundsUnchecked(nodeBounds);
+        }
+    }
+}
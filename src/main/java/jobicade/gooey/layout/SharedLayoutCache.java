@@ -0,0 +1,456 @@
+package jobicade.gooey.layout;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Range;
+
+import jobicade.gooey.GooeyMath;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.GridLayout.MajorAxis;
+
+/**
+ * Measures and lays out layout trees, sharing results between subtrees with
+ * the same structure. Results are identical to calling the layouts' own
+ * methods.
+ *
+ * <p>Each subtree is reduced to a shape made of its type, size constraints,
+ * grid settings and the shapes of its children. Equal shapes are stored once,
+ * along with their minimum size, so a screen of many identical rows is
+ * measured once per distinct shape rather than once per row. The child sizes
+ * chosen by a grid shape for a requested size are cached in the same way, and
+ * only the final positions are computed for each instance.
+ *
+ * <p>The cache remembers the shape of each grid it has seen, by identity and
+ * without keeping the grid alive. A remembered shape is checked on every call
+ * against the grid's settings, the size constraints of static cells and the
+ * remembered shapes of grid cells, which costs one lookup per grid and no
+ * hashing of shapes, so changes to the trees are always seen. Shapes are only
+ * built and interned again for subtrees which changed.
+ *
+ * <p>Static layouts and grids with uniform cells have shapes. Any other layout
+ * (including subclasses of {@link GridLayout} and grids with tracks) is
+ * measured through its own methods every time, and its ancestors are not
+ * shared. Both caches are bounded and evict the least recently used entries.
+ */
+public final class SharedLayoutCache {
+    private static final byte KIND_STATIC = 0;
+    private static final byte KIND_GRID = 1;
+    private static final byte KIND_OPAQUE = 2;
+
+    private final Cache<Shape, Shape> shapes;
+    private final Cache<Arrangement, int[]> arrangements;
+    /**
+     * The last shape found for each grid, with weak keys. Keys are exactly
+     * {@link GridLayout}, which compares by identity.
+     */
+    private final Map<Layout, Remembered> remembered = new WeakHashMap<>();
+
+    /**
+     * @param maxCachedEntries The maximum number of shapes and the maximum
+     * number of arrangements kept.
+     */
+    public SharedLayoutCache(int maxCachedEntries) {
+        shapes = CacheBuilder.newBuilder().maximumSize(maxCachedEntries).build();
+        arrangements = CacheBuilder.newBuilder().maximumSize(maxCachedEntries).build();
+    }
+
+    /**
+     * Equivalent to {@link Layout#getMinSize()}.
+     */
+    public Point getMinSize(Layout layout) {
+        return getShape(layout).getMinSize();
+    }
+
+    /**
+     * Equivalent to {@link Layout#requestSize(Point)}.
+     */
+    public Point requestSize(Layout layout, Point size) {
+        return getShape(layout).requestSize(size);
+    }
+
+    /**
+     * Equivalent to {@link Layout#apply(Rect)}.
+     *
+     * @throws IllegalArgumentException If {@code requestedBounds} has an
+     * invalid size for {@code layout}.
+     */
+    public void apply(Layout layout, Rect requestedBounds) {
+        apply(layout, getShape(layout), requestedBounds);
+    }
+
+    /**
+     * @return The approximate number of distinct shapes cached.
+     */
+    public long getShapeCount() {
+        return shapes.size();
+    }
+
+    public void clearCache() {
+        shapes.invalidateAll();
+        arrangements.invalidateAll();
+        remembered.clear();
+    }
+
+    private Shape getShape(Layout layout) {
+        if (layout.getClass() == StaticLayout.class) {
+            StaticLayout staticLayout = (StaticLayout)layout;
+            return intern(new Shape(staticLayout.getWidthRange(), staticLayout.getHeightRange()));
+        } else if (layout.getClass() == GridLayout.class && isUniform((GridLayout<?>)layout)) {
+            GridLayout<?> grid = (GridLayout<?>)layout;
+            Remembered last = remembered.get(grid);
+
+            if (last != null && isValid(grid, last)) {
+                return last.shape;
+            }
+            List<? extends Layout> cells = grid.getCells();
+            Shape[] children = new Shape[cells.size()];
+
+            for (int i = 0; i < children.length; i++) {
+                children[i] = getShape(cells.get(i));
+            }
+            Shape shape = new Shape(grid, children);
+
+            // Shapes containing opaque layouts must be measured every time
+            if (shape.shared) {
+                shape = intern(shape);
+                remembered.put(grid, new Remembered(shape, grid.getModCount()));
+            } else if (last != null) {
+                remembered.remove(grid);
+            }
+            return shape;
+        } else {
+            return new Shape(layout);
+        }
+    }
+
+    /**
+     * @return {@code true} if the shape remembered for {@code grid} still
+     * matches its settings and cells. Remembered shapes of the cells are
+     * checked and found again as needed.
+     */
+    private boolean isValid(GridLayout<?> grid, Remembered last) {
+        if (last.modCount != grid.getModCount()) {
+            return false;
+        }
+        Shape shape = last.shape;
+        List<? extends Layout> cells = grid.getCells();
+
+        if (cells.size() != shape.children.length) {
+            return false;
+        }
+        // Static cells are compared by value, which is cheaper than finding
+        // their shapes. Children of interned shapes are interned, so unchanged
+        // grid cells have identical shapes
+        for (int i = 0; i < shape.children.length; i++) {
+            Layout cell = cells.get(i);
+
+            if (cell.getClass() == StaticLayout.class) {
+                if (!shape.children[i].matches((StaticLayout)cell)) {
+                    return false;
+                }
+            } else if (getShape(cell) != shape.children[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The cached shape equal to {@code shape}, which is added and
+     * measured if there is none.
+     */
+    private Shape intern(Shape shape) {
+        Shape cached = shapes.getIfPresent(shape);
+
+        if (cached == null) {
+            if (shape.kind == KIND_GRID) {
+                shape.measure();
+            }
+            shapes.put(shape, shape);
+            return shape;
+        }
+        return cached;
+    }
+
+    private static boolean isUniform(GridLayout<?> grid) {
+        return !grid.getCells().isEmpty() && !grid.hasTracks();
+    }
+
+    private void apply(Layout layout, Shape shape, Rect requestedBounds) {
+        if (shape.kind != KIND_GRID) {
+            layout.apply(requestedBounds);
+            return;
+        }
+        GridLayout<?> grid = (GridLayout<?>)layout;
+        List<? extends Layout> cells = grid.getCells();
+
+        if (!shape.checkSize(requestedBounds.getWidth(), requestedBounds.getHeight())) {
+            throw new IllegalArgumentException("Invalid size");
+        }
+        Point cellStep = new Point(
+            requestedBounds.getWidth() / shape.shapeX,
+            requestedBounds.getHeight() / shape.shapeY);
+        int[] sizes = getArrangement(shape, cellStep);
+
+        grid.clearTrackEdges();
+        grid.setBoundsUnchecked(requestedBounds);
+
+        // Positions are computed exactly as in GridLayout.apply
+        for (int i = 0; i < cells.size(); i++) {
+            Point cellPos = shape.majorAxis == MajorAxis.ROW
+                ? new Point(i % shape.lineSize, i / shape.lineSize)
+                : new Point(i / shape.lineSize, i % shape.lineSize);
+
+            Rect outerCell = Rect.bySize(
+                requestedBounds.interpolate(0, 0).add(cellPos.scale(cellStep)),
+                cellStep
+            );
+
+            apply(cells.get(i), shape.children[i], Rect.bySize(0, 0, sizes[i * 2], sizes[i * 2 + 1])
+                .alignInside(outerCell, shape.alignX, shape.alignY));
+        }
+    }
+
+    /**
+     * @return The width and height chosen by each child of a grid shape in
+     * response to {@code cellStep}.
+     */
+    private int[] getArrangement(Shape shape, Point cellStep) {
+        // Consecutive instances of a shape are usually given the same size
+        if (cellStep.equals(shape.lastCellStep)) {
+            return shape.lastSizes;
+        }
+        Arrangement key = shape.shared ? new Arrangement(shape, cellStep) : null;
+        int[] sizes = key != null ? arrangements.getIfPresent(key) : null;
+
+        if (sizes == null) {
+            sizes = new int[shape.children.length * 2];
+
+            for (int i = 0; i < shape.children.length; i++) {
+                Point size = shape.children[i].requestSize(cellStep);
+                sizes[i * 2] = size.getX();
+                sizes[i * 2 + 1] = size.getY();
+            }
+            if (key != null) {
+                arrangements.put(key, sizes);
+            }
+        }
+        shape.lastCellStep = cellStep;
+        shape.lastSizes = sizes;
+        return sizes;
+    }
+
+    /**
+     * The structure of a subtree. Shapes which do not contain opaque layouts
+     * are compared by value, and others by identity.
+     */
+    private static final class Shape {
+        final byte kind;
+        final boolean shared;
+        final int hash;
+
+        // Static
+        final Range<Integer> widthRange;
+        final Range<Integer> heightRange;
+
+        // Grid
+        final MajorAxis majorAxis;
+        final int lineSize;
+        final float alignX;
+        final float alignY;
+        final Shape[] children;
+        final int shapeX;
+        final int shapeY;
+
+        // Opaque
+        final Layout layout;
+
+        private Point minSize;
+
+        /** The last arrangement used, checked before the shared cache. */
+        private Point lastCellStep;
+        private int[] lastSizes;
+
+        Shape(Range<Integer> widthRange, Range<Integer> heightRange) {
+            this(KIND_STATIC, true, widthRange, heightRange, null, 0, 0, 0, null, null);
+        }
+
+        Shape(GridLayout<?> grid, Shape[] children) {
+            this(KIND_GRID, allShared(children), null, null, grid.getMajorAxis(), grid.getLineSize(),
+                grid.getAlignFactorX(), grid.getAlignFactorY(), children, null);
+        }
+
+        Shape(Layout layout) {
+            this(KIND_OPAQUE, false, null, null, null, 0, 0, 0, null, layout);
+        }
+
+        private Shape(byte kind, boolean shared, Range<Integer> widthRange, Range<Integer> heightRange,
+                MajorAxis majorAxis, int lineSize, float alignX, float alignY, Shape[] children, Layout layout) {
+            this.kind = kind;
+            this.shared = shared;
+            this.widthRange = widthRange;
+            this.heightRange = heightRange;
+            this.majorAxis = majorAxis;
+            this.lineSize = lineSize;
+            this.alignX = alignX;
+            this.alignY = alignY;
+            this.children = children;
+            this.layout = layout;
+
+            if (kind == KIND_GRID) {
+                int numLines = GooeyMath.ceilDiv(children.length, lineSize);
+                int lineLength = Math.min(lineSize, children.length);
+
+                shapeX = majorAxis == MajorAxis.ROW ? lineLength : numLines;
+                shapeY = majorAxis == MajorAxis.ROW ? numLines : lineLength;
+            } else {
+                shapeX = 0;
+                shapeY = 0;
+            }
+            hash = computeHash();
+
+            // Shared grids are measured once when they are first cached
+            if (kind != KIND_GRID || !shared) {
+                measure();
+            }
+        }
+
+        private static boolean allShared(Shape[] children) {
+            for (Shape child : children) {
+                if (!child.shared) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int computeHash() {
+            switch (kind) {
+                case KIND_STATIC:
+                    return widthRange.hashCode() * 31 + heightRange.hashCode();
+                case KIND_GRID:
+                    int hash = ((majorAxis.hashCode() * 31 + lineSize) * 31
+                        + Float.hashCode(alignX)) * 31 + Float.hashCode(alignY);
+                    return hash * 31 + Arrays.hashCode(children);
+                default:
+                    return System.identityHashCode(layout);
+            }
+        }
+
+        void measure() {
+            switch (kind) {
+                case KIND_STATIC:
+                    minSize = requestSize(Point.ZERO);
+                    break;
+                case KIND_GRID:
+                    Point largest = children[0].getMinSize();
+
+                    for (int i = 1; i < children.length; i++) {
+                        largest = Point.biMax(largest, children[i].getMinSize());
+                    }
+                    // Matches GridLayout.requestSize, including its rounding
+                    minSize = new Point(shapeX, shapeY).scale(largest);
+                    break;
+                default:
+                    minSize = layout.getMinSize();
+                    break;
+            }
+        }
+
+        Point getMinSize() {
+            return minSize;
+        }
+
+        Point requestSize(Point size) {
+            switch (kind) {
+                case KIND_STATIC:
+                    return new Point(GooeyMath.clamp(widthRange, size.getX()), GooeyMath.clamp(heightRange, size.getY()));
+                case KIND_GRID:
+                    return Point.biMax(size, minSize);
+                default:
+                    return layout.requestSize(size);
+            }
+        }
+
+        boolean matches(StaticLayout layout) {
+            return kind == KIND_STATIC && widthRange.equals(layout.getWidthRange())
+                && heightRange.equals(layout.getHeightRange());
+        }
+
+        boolean checkSize(int width, int height) {
+            return width >= minSize.getX() && height >= minSize.getY();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            } else if (obj instanceof Shape) {
+                Shape shape = (Shape)obj;
+
+                if (!shared || !shape.shared || kind != shape.kind || hash != shape.hash) {
+                    return false;
+                } else if (kind == KIND_STATIC) {
+                    return widthRange.equals(shape.widthRange) && heightRange.equals(shape.heightRange);
+                } else {
+                    return majorAxis == shape.majorAxis && lineSize == shape.lineSize
+                        && Float.compare(alignX, shape.alignX) == 0
+                        && Float.compare(alignY, shape.alignY) == 0
+                        && Arrays.equals(children, shape.children);
+                }
+            }
+            return super.equals(obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The shape found for a grid and its modification count when it was found.
+     */
+    private static final class Remembered {
+        final Shape shape;
+        final int modCount;
+
+        Remembered(Shape shape, int modCount) {
+            this.shape = shape;
+            this.modCount = modCount;
+        }
+    }
+
+    /**
+     * A grid shape with a cell step.
+     */
+    private static final class Arrangement {
+        private final Shape shape;
+        private final Point cellStep;
+
+        Arrangement(Shape shape, Point cellStep) {
+            this.shape = shape;
+            this.cellStep = cellStep;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Arrangement) {
+                Arrangement arrangement = (Arrangement)obj;
+                return shape.equals(arrangement.shape) && cellStep.equals(arrangement.cellStep);
+            }
+            return super.equals(obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return shape.hashCode() * 31 + cellStep.hashCode();
+        }
+    }
+}
@@ -50,4 +50,14 @@ final class StaticLayout extends Layout {
     public Point getSizeHint() {
         return sizeHint;
     }
+
+    // package-private
+    Range<Integer> getWidthRange() {
+        return widthRange;
+    }
+
+    // package-private
+    Range<Integer> getHeightRange() {
+        return heightRange;
+    }
 }
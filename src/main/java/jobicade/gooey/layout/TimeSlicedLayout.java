@@ -0,0 +1,218 @@
+package jobicade.gooey.layout;
+
+import jobicade.gooey.geom.Rect;
+import jobicade.gooey.layout.Layout.StagedPass;
+
+/**
+ * Runs layout passes over a {@link LayoutPlan} in resumable slices, each
+ * limited by a time budget, so a large relayout can be spread over several
+ * frames.
+ *
+ * <p>A pass computes all bounds into a private buffer, then stages a Rect on
+ * each layout, checking the time after each small chunk of work. Layouts keep
+ * their previous bounds throughout. Once every layout is staged, the pass is
+ * committed in constant time: each layout switches to its staged bounds on
+ * first access, so the tree is never seen half laid out. Listeners are then
+ * notified in chunks, parents before children, over the following steps.
+ *
+ * <p>Opaque layouts cannot be staged. They keep their previous bounds until
+ * after the commit, when each is applied through its own methods with the
+ * time checked in between. A single large opaque subtree can therefore
+ * overrun the budget of a step, and is seen at its old bounds until it is
+ * applied.
+ */
+public final class TimeSlicedLayout {
+    /** The number of work units between checks of the clock. */
+    private static final int CHUNK = 256;
+
+    private final LayoutPlan plan;
+    private final int[] bounds;
+    /** The bounds each layout had when staged, or those for opaque layouts. */
+    private final Rect[] staged;
+
+    private StagedPass pass;
+    private boolean running;
+    private int node;
+    private int child;
+    private int arranged;
+    private int stagedCount;
+    private int publishedCount;
+
+    /**
+     * Compiles a plan for the tree rooted at {@code root}.
+     */
+    public TimeSlicedLayout(Layout root) {
+        this(LayoutPlan.compile(root));
+    }
+
+    public TimeSlicedLayout(LayoutPlan plan) {
+        this.plan = plan;
+        bounds = new int[plan.size() * 4];
+        staged = new Rect[plan.size()];
+    }
+
+    public LayoutPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Starts a new pass, abandoning any pass in progress. If the previous pass
+     * was already committed, its remaining opaque layouts and notifications
+     * are completed first. No other work is done until {@link #step(long)} or
+     * {@link #finish()} is called.
+     *
+     * @throws IllegalArgumentException If {@code requestedBounds} has an
+     * invalid size for the root.
+     * @throws IllegalStateException If a grid's settings have changed since
+     * the plan was compiled.
+     * @see LayoutPlan#isStale()
+     */
+    public void start(Rect requestedBounds) {
+        if (running && pass.committed) {
+            while (publish());
+        }
+        plan.begin(requestedBounds, bounds);
+        pass = new StagedPass();
+        running = true;
+        node = 0;
+        child = 0;
+        arranged = 0;
+        stagedCount = 0;
+        publishedCount = 0;
+    }
+
+    /**
+     * @return {@code true} if a pass has been started and listeners have not
+     * yet been notified of all its changes.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return The fraction of the current pass completed, between 0 and 1.
+     * Returns 1 when no pass is running.
+     */
+    public float getProgress() {
+        if (!running) {
+            return 1.0f;
+        }
+        return (float)(arranged + stagedCount + publishedCount) / (3 * plan.size());
+    }
+
+    /**
+     * Continues the current pass for at most about {@code budgetNanos}, except
+     * for opaque layouts. The new bounds are committed to every layout
+     * together once all of them are staged.
+     *
+     * @return {@code true} if no pass is running after this call.
+     */
+    public boolean step(long budgetNanos) {
+        if (!running) {
+            return true;
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+
+        while (arrange() || stage() || publish()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+        }
+        running = false;
+        return true;
+    }
+
+    /**
+     * Completes the current pass without a time limit.
+     */
+    public void finish() {
+        if (running) {
+            boolean more;
+            do {
+                more = arrange() || stage() || publish();
+            } while (more);
+            running = false;
+        }
+    }
+
+    /**
+     * Arranges one chunk of children, spanning several grids if they are
+     * small and skipping leaves.
+     *
+     * @return {@code true} if there may be more children to arrange.
+     */
+    private boolean arrange() {
+        int work = 0;
+
+        while (node < plan.size() && work < CHUNK) {
+            int childCount = plan.getChildCount(node);
+            int end = Math.min(childCount, child + CHUNK - work);
+
+            if (end > child) {
+                plan.arrangeChildren(node, child, end, bounds);
+                work += end - child;
+                child = end;
+            }
+            if (child == childCount) {
+                ++node;
+                ++arranged;
+                ++work;
+                child = 0;
+            }
+        }
+        return node < plan.size();
+    }
+
+    /**
+     * Stages Rects for one chunk of nodes, committing the pass after the last.
+     *
+     * @return {@code true} if there may be more Rects to stage.
+     */
+    private boolean stage() {
+        int end = Math.min(plan.size(), stagedCount + CHUNK);
+
+        for (int i = stagedCount; i < end; i++) {
+            Rect nodeBounds = Rect.bySize(bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+            Layout layout = plan.getLayout(i);
+
+            if (plan.isOpaque(i)) {
+                staged[i] = nodeBounds;
+            } else {
+                staged[i] = layout.getBounds();
+                layout.stageBounds(nodeBounds, pass);
+            }
+        }
+        stagedCount = end;
+
+        if (stagedCount < plan.size()) {
+            return true;
+        }
+        pass.committed = true;
+        return false;
+    }
+
+    /**
+     * Notifies listeners for one chunk of nodes, or applies one opaque layout.
+     *
+     * @return {@code true} if there may be more nodes to publish.
+     */
+    private boolean publish() {
+        int end = Math.min(plan.size(), publishedCount + CHUNK);
+
+        for (int i = publishedCount; i < end; i++) {
+            Rect nodeBounds = staged[i];
+            staged[i] = null;
+
+            if (plan.isOpaque(i)) {
+                plan.getLayout(i).apply(nodeBounds);
+                // Opaque layouts may take any amount of time
+                publishedCount = i + 1;
+                return publishedCount < plan.size();
+            } else {
+                plan.getLayout(i).fireStagedChange(nodeBounds);
+            }
+        }
+        publishedCount = end;
+        return publishedCount < plan.size();
+    }
+}
@@ -0,0 +1,84 @@
+package jobicade.gooey.layout;
+
+/**
+ * The sizing rule for one row or column of a {@link GridLayout}.
+ *
+ * @see GridLayout#setColumnTracks(java.util.List)
+ * @see GridLayout#setRowTracks(java.util.List)
+ */
+public final class TrackSize {
+    private static final TrackSize AUTO = new TrackSize(Kind.AUTO, 0);
+
+    private final Kind kind;
+    private final int value;
+
+    private TrackSize(Kind kind, int value) {
+        this.kind = kind;
+        this.value = value;
+    }
+
+    /**
+     * @return A track of exactly {@code size} pixels. Cells larger than the
+     * track overflow it.
+     */
+    public static TrackSize fixed(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Negative track size");
+        }
+        return new TrackSize(Kind.FIXED, size);
+    }
+
+    /**
+     * @return A track as large as the largest minimum size of its cells.
+     */
+    public static TrackSize auto() {
+        return AUTO;
+    }
+
+    /**
+     * @return A track at least as large as its cells, which also takes a share
+     * of any space left over by all tracks, proportional to {@code weight}.
+     */
+    public static TrackSize fraction(int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive");
+        }
+        return new TrackSize(Kind.FRACTION, weight);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof TrackSize) {
+            TrackSize track = (TrackSize)obj;
+            return kind == track.kind && value == track.value;
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return kind.hashCode() * 31 + value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{kind: %s, value: %d}", getClass().getName(), kind, value);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The size of a fixed track or the weight of a fraction track.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    public enum Kind {
+        FIXED,
+        AUTO,
+        FRACTION
+    }
+}
@@ -0,0 +1,37 @@
+package jobicade.gooey.layout.loader;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * An immutable parsed layout file, cached by {@link LayoutLoader} in place of
+ * the documents built from it.
+ */
+// package-private
+final class DocumentTemplate {
+    private final LayoutTemplate root;
+    private final Map<String, Color> colors;
+    private final Map<String, Point> sizes;
+
+    DocumentTemplate(LayoutTemplate root, Map<String, Color> colors, Map<String, Point> sizes) {
+        this.root = root;
+        this.colors = Collections.unmodifiableMap(new HashMap<>(colors));
+        this.sizes = Collections.unmodifiableMap(new HashMap<>(sizes));
+    }
+
+    /**
+     * @return A new document with its own layout tree. Colors and sizes are
+     * immutable and shared.
+     */
+    LayoutDocument build() {
+        Map<String, Layout> layouts = new HashMap<>();
+        Layout layout = root.build(layouts);
+
+        return new LayoutDocument(layout, layouts, colors, sizes);
+    }
+}
@@ -0,0 +1,48 @@
+package jobicade.gooey.layout.loader;
+
+import java.util.Collections;
+import java.util.Map;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * The result of loading a layout file: the root layout and any named layouts,
+ * colors and sizes it defines.
+ *
+ * @see LayoutLoader
+ */
+public final class LayoutDocument {
+    private final Layout root;
+    private final Map<String, Layout> layouts;
+    private final Map<String, Color> colors;
+    private final Map<String, Point> sizes;
+
+    // package-private
+    LayoutDocument(Layout root, Map<String, Layout> layouts, Map<String, Color> colors, Map<String, Point> sizes) {
+        this.root = root;
+        this.layouts = Collections.unmodifiableMap(layouts);
+        this.colors = Collections.unmodifiableMap(colors);
+        this.sizes = Collections.unmodifiableMap(sizes);
+    }
+
+    public Layout getRoot() {
+        return root;
+    }
+
+    /**
+     * @return Layouts given an {@code id} attribute, by ID.
+     */
+    public Map<String, Layout> getLayouts() {
+        return layouts;
+    }
+
+    public Map<String, Color> getColors() {
+        return colors;
+    }
+
+    public Map<String, Point> getSizes() {
+        return sizes;
+    }
+}
@@ -0,0 +1,22 @@
+package jobicade.gooey.layout.loader;
+
+/**
+ * Thrown when a layout file is malformed.
+ */
+public class LayoutFormatException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+
+    public LayoutFormatException(int line, String message) {
+        super("line " + line + ": " + message);
+        this.line = line;
+    }
+
+    /**
+     * @return The 1-based line number where the error was found.
+     */
+    public int getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,121 @@
+package jobicade.gooey.layout.loader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+/**
+ * Loads layout files, caching parsed files by a hash of their content so
+ * unchanged files are never parsed twice.
+ *
+ * <p>Layout files are UTF-8 text made of whitespace separated tokens. Text
+ * from {@code //} to the end of a line is a comment. A file defines named
+ * values followed by exactly one root layout:
+ *
+ * <pre>
+ * color accent #ff8800
+ * color shadow #80000000
+ * size icon 16x16
+ *
+ * grid id=hotbar axis=row line=9 align=0.5,1 {
+ *     fixed $icon
+ *     any 20x10 id=label
+ *     range 8x8 width=4..64 height=4..
+ * }
+ * </pre>
+ *
+ * <ul>
+ *   <li>{@code color <name> #rrggbb} or {@code #aarrggbb} defines a color
+ *   <li>{@code size <name> <W>x<H>} defines a size, referenced later as
+ *   {@code $name} wherever a size is expected
+ *   <li>{@code fixed <size>} and {@code any <size>} create layouts as
+ *   {@link jobicade.gooey.layout.Layout#fixedSize} and
+ *   {@link jobicade.gooey.layout.Layout#anySize}
+ *   <li>{@code range <size hint> [width=<range>] [height=<range>]} creates a
+ *   layout as {@link jobicade.gooey.layout.Layout#sizeRange}, where ranges are
+ *   {@code min..max}, {@code min..}, {@code ..max} or a single value
+ *   <li>{@code grid [axis=row|column] [line=<cells>] [align=<x>,<y>] { ... }}
+ *   creates a {@link jobicade.gooey.layout.GridLayout} of the enclosed layouts
+ *   <li>Any layout may have {@code id=<name>} to appear in
+ *   {@link LayoutDocument#getLayouts()}
+ * </ul>
+ *
+ * <p>The cache holds an immutable description of each file, not layouts.
+ * Every load builds a new document with its own layout tree, so callers may
+ * lay out and modify their layouts freely. Colors and sizes are immutable and
+ * shared.
+ */
+public final class LayoutLoader {
+    private final Cache<HashCode, DocumentTemplate> cache;
+
+    /**
+     * @param maxCachedDocuments The maximum number of documents kept in the
+     * cache before the least recently used are evicted.
+     */
+    public LayoutLoader(int maxCachedDocuments) {
+        cache = CacheBuilder.newBuilder().maximumSize(maxCachedDocuments).build();
+    }
+
+    /**
+     * Parses a layout file without caching.
+     *
+     * @throws LayoutFormatException If the content is malformed.
+     */
+    public static LayoutDocument parse(Reader reader) throws IOException {
+        return new LayoutParser(reader).parseDocument().build();
+    }
+
+    /**
+     * Loads a layout file, parsing it only if no file with the same content is
+     * cached. Each call returns a new layout tree.
+     *
+     * @throws LayoutFormatException If the file is malformed.
+     */
+    public LayoutDocument load(Path path) throws IOException {
+        return load(Files.readAllBytes(path));
+    }
+
+    /**
+     * Loads layout file content, parsing it only if the same content is not
+     * cached. Each call returns a new layout tree.
+     *
+     * @throws LayoutFormatException If the content is malformed.
+     */
+    public LayoutDocument load(byte[] content) {
+        HashCode hash = Hashing.murmur3_128().hashBytes(content);
+        DocumentTemplate template = cache.getIfPresent(hash);
+
+        if (template == null) {
+            Reader reader = new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8);
+            try {
+                template = new LayoutParser(reader).parseDocument();
+            } catch (IOException e) {
+                // Reading from memory cannot fail
+                throw new UncheckedIOException(e);
+            }
+            cache.put(hash, template);
+        }
+        return template.build();
+    }
+
+    /**
+     * @return The approximate number of cached documents.
+     */
+    public long getCacheSize() {
+        return cache.size();
+    }
+
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+}
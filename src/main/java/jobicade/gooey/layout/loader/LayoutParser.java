@@ -0,0 +1,388 @@
+package jobicade.gooey.layout.loader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Range;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.layout.GridLayout.MajorAxis;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * Single pass recursive descent parser, building layout templates directly
+ * from tokens as they are read.
+ *
+ * @see LayoutLoader
+ */
+// package-private
+final class LayoutParser {
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[4096];
+    private int position;
+    private int limit;
+
+    private int next;
+    private int line = 1;
+    private int tokenLine;
+
+    private final Set<String> ids = new HashSet<>();
+    private final Map<String, Color> colors = new HashMap<>();
+    private final Map<String, Point> sizes = new HashMap<>();
+
+    /** One token of lookahead, or {@code null} if none has been read. */
+    private String peeked;
+
+    LayoutParser(Reader reader) throws IOException {
+        this.reader = reader;
+        next = read();
+    }
+
+    DocumentTemplate parseDocument() throws IOException {
+        LayoutTemplate root = null;
+        String token;
+
+        while ((token = nextToken()) != null) {
+            if (token.equals("color")) {
+                String name = expectWord("color name");
+                colors.put(name, parseColor(expectWord("color")));
+            } else if (token.equals("size")) {
+                String name = expectWord("size name");
+                sizes.put(name, parseSize(expectWord("size")));
+            } else if (root == null) {
+                root = parseLayout(token);
+            } else {
+                throw error("Multiple root layouts");
+            }
+        }
+
+        if (root == null) {
+            throw error("No root layout");
+        }
+        return new DocumentTemplate(root, colors, sizes);
+    }
+
+    private LayoutTemplate parseLayout(String keyword) throws IOException {
+        switch (keyword) {
+            case "fixed":
+            case "any":
+                return parseStatic(keyword.equals("fixed"));
+            case "range":
+                return parseRange();
+            case "grid":
+                return parseGrid();
+            default:
+                throw error("Unknown layout \"" + keyword + "\"");
+        }
+    }
+
+    private LayoutTemplate parseStatic(boolean fixed) throws IOException {
+        Point size = parseSize(expectWord("size"));
+        String id = null;
+
+        String attribute;
+        while ((attribute = nextAttribute()) != null) {
+            if (attributeKey(attribute).equals("id")) {
+                id = attributeValue(attribute);
+            } else {
+                throw error("Unknown attribute \"" + attribute + "\"");
+            }
+        }
+
+        if (fixed) {
+            return parseStatic(id, size, Range.singleton(size.getX()), Range.singleton(size.getY()));
+        } else {
+            return parseStatic(id, size, Range.atLeast(0), Range.atLeast(0));
+        }
+    }
+
+    private LayoutTemplate parseRange() throws IOException {
+        Point sizeHint = parseSize(expectWord("size"));
+        Range<Integer> width = Range.atLeast(0);
+        Range<Integer> height = Range.atLeast(0);
+        String id = null;
+
+        String attribute;
+        while ((attribute = nextAttribute()) != null) {
+            String value = attributeValue(attribute);
+
+            switch (attributeKey(attribute)) {
+                case "width": width = parseRange(value); break;
+                case "height": height = parseRange(value); break;
+                case "id": id = value; break;
+                default: throw error("Unknown attribute \"" + attribute + "\"");
+            }
+        }
+
+        return parseStatic(id, sizeHint, width, height);
+    }
+
+    private LayoutTemplate parseStatic(String id, Point sizeHint, Range<Integer> width, Range<Integer> height) {
+        // Building one layout validates the template, so building it later cannot fail
+        try {
+            Layout.sizeRange(sizeHint, width, height);
+        } catch (IllegalArgumentException e) {
+            throw error(e.getMessage());
+        }
+        return LayoutTemplate.staticLayout(putId(id), sizeHint, width, height);
+    }
+
+    private LayoutTemplate parseGrid() throws IOException {
+        MajorAxis axis = MajorAxis.ROW;
+        int lineSize = Integer.MAX_VALUE;
+        float alignX = 0.5f;
+        float alignY = 0.5f;
+        String id = null;
+
+        String attribute;
+        while ((attribute = nextAttribute()) != null) {
+            String value = attributeValue(attribute);
+
+            switch (attributeKey(attribute)) {
+                case "axis":
+                    if (value.equals("row")) {
+                        axis = MajorAxis.ROW;
+                    } else if (value.equals("column")) {
+                        axis = MajorAxis.COLUMN;
+                    } else {
+                        throw error("Unknown axis \"" + value + "\"");
+                    }
+                    break;
+                case "line":
+                    lineSize = parseInt(value);
+                    if (lineSize <= 0) {
+                        throw error("Line must be at least 1 cell");
+                    }
+                    break;
+                case "align":
+                    int comma = value.indexOf(',');
+                    if (comma == -1) {
+                        throw error("Expected alignment x,y");
+                    }
+                    alignX = parseFloat(value.substring(0, comma));
+                    alignY = parseFloat(value.substring(comma + 1));
+                    break;
+                case "id":
+                    id = value;
+                    break;
+                default:
+                    throw error("Unknown attribute \"" + attribute + "\"");
+            }
+        }
+
+        if (!"{".equals(nextToken())) {
+            throw error("Expected '{'");
+        }
+        List<LayoutTemplate> cells = new ArrayList<>();
+        String token;
+
+        while (!"}".equals(token = nextToken())) {
+            if (token == null) {
+                throw error("Expected '}'");
+            }
+            cells.add(parseLayout(token));
+        }
+        if (cells.isEmpty()) {
+            throw error("Empty grid");
+        }
+
+        return LayoutTemplate.grid(putId(id), cells, axis, lineSize, alignX, alignY);
+    }
+
+    private String putId(String id) {
+        if (id != null && !ids.add(id)) {
+            throw error("Duplicate id \"" + id + "\"");
+        }
+        return id;
+    }
+
+    // region Values
+
+    private Point parseSize(String value) {
+        if (value.startsWith("$")) {
+            Point size = sizes.get(value.substring(1));
+
+            if (size == null) {
+                throw error("Undefined size \"" + value + "\"");
+            }
+            return size;
+        }
+
+        int x = value.indexOf('x');
+        if (x == -1) {
+            throw error("Expected size WxH");
+        }
+        return new Point(parseInt(value.substring(0, x)), parseInt(value.substring(x + 1)));
+    }
+
+    private Color parseColor(String value) {
+        if (!value.startsWith("#") || (value.length() != 7 && value.length() != 9)) {
+            throw error("Expected color #rrggbb or #aarrggbb");
+        }
+        int argb;
+        try {
+            argb = Integer.parseUnsignedInt(value.substring(1), 16);
+        } catch (NumberFormatException e) {
+            throw error("Invalid color \"" + value + "\"");
+        }
+
+        if (value.length() == 7) {
+            argb |= 0xff000000;
+        }
+        return Color.unpackArgb(argb);
+    }
+
+    private Range<Integer> parseRange(String value) {
+        int dots = value.indexOf("..");
+
+        if (dots == -1) {
+            return Range.singleton(parseInt(value));
+        }
+        String min = value.substring(0, dots);
+        String max = value.substring(dots + 2);
+        int lower = min.isEmpty() ? 0 : parseInt(min);
+
+        if (max.isEmpty()) {
+            return Range.atLeast(lower);
+        }
+        int upper = parseInt(max);
+
+        if (lower > upper) {
+            throw error("Empty size range");
+        }
+        return Range.closed(lower, upper);
+    }
+
+    private int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw error("Invalid integer \"" + value + "\"");
+        }
+    }
+
+    private float parseFloat(String value) {
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number \"" + value + "\"");
+        }
+    }
+
+    // endregion
+
+    // region Tokens
+
+    private LayoutFormatException error(String message) {
+        return new LayoutFormatException(tokenLine, message);
+    }
+
+    /**
+     * @return The next token if it is an attribute, otherwise {@code null}
+     * leaving the token to be read again.
+     */
+    private String nextAttribute() throws IOException {
+        String token = nextToken();
+
+        if (token != null && token.indexOf('=') > 0) {
+            return token;
+        }
+        peeked = token;
+        return null;
+    }
+
+    private static String attributeKey(String attribute) {
+        return attribute.substring(0, attribute.indexOf('='));
+    }
+
+    private static String attributeValue(String attribute) {
+        return attribute.substring(attribute.indexOf('=') + 1);
+    }
+
+    private String expectWord(String expected) throws IOException {
+        String token = nextToken();
+
+        if (token == null || token.equals("{") || token.equals("}")) {
+            throw error("Expected " + expected);
+        }
+        return token;
+    }
+
+    /**
+     * @return The next token, or {@code null} at the end of input.
+     */
+    private String nextToken() throws IOException {
+        if (peeked != null) {
+            String token = peeked;
+            peeked = null;
+            return token;
+        }
+        skipSpaceAndComments();
+        tokenLine = line;
+
+        if (next == EOF) {
+            return null;
+        } else if (next == '{' || next == '}') {
+            String token = String.valueOf((char)next);
+            advance();
+            return token;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        while (next != EOF && !Character.isWhitespace(next)
+                && next != '{' && next != '}' && next != '/') {
+            builder.append((char)next);
+            advance();
+        }
+        return builder.toString();
+    }
+
+    private void skipSpaceAndComments() throws IOException {
+        while (true) {
+            if (next == '/') {
+                advance();
+                if (next != '/') {
+                    throw new LayoutFormatException(line, "Expected comment");
+                }
+                while (next != EOF && next != '\n') {
+                    advance();
+                }
+            } else if (next != EOF && Character.isWhitespace(next)) {
+                advance();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void advance() throws IOException {
+        if (next == '\n') {
+            ++line;
+        }
+        next = read();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer);
+            position = 0;
+
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position++];
+    }
+
+    // endregion
+}
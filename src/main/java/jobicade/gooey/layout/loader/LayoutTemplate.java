@@ -0,0 +1,92 @@
+package jobicade.gooey.layout.loader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Range;
+
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.layout.GridLayout;
+import jobicade.gooey.layout.GridLayout.MajorAxis;
+import jobicade.gooey.layout.Layout;
+
+/**
+ * An immutable description of a parsed layout, from which any number of
+ * independent layout trees can be built. Templates are validated while
+ * parsing, so building from them cannot fail.
+ *
+ * @see LayoutLoader
+ */
+// package-private
+final class LayoutTemplate {
+    private final String id;
+
+    // Static
+    private final Point sizeHint;
+    private final Range<Integer> widthRange;
+    private final Range<Integer> heightRange;
+
+    // Grid
+    private final List<LayoutTemplate> cells;
+    private final MajorAxis majorAxis;
+    private final int lineSize;
+    private final float alignX;
+    private final float alignY;
+
+    private LayoutTemplate(String id, Point sizeHint, Range<Integer> widthRange, Range<Integer> heightRange,
+            List<LayoutTemplate> cells, MajorAxis majorAxis, int lineSize, float alignX, float alignY) {
+        this.id = id;
+        this.sizeHint = sizeHint;
+        this.widthRange = widthRange;
+        this.heightRange = heightRange;
+        this.cells = cells;
+        this.majorAxis = majorAxis;
+        this.lineSize = lineSize;
+        this.alignX = alignX;
+        this.alignY = alignY;
+    }
+
+    /**
+     * @return A template for {@link Layout#sizeRange(Point, Range, Range)},
+     * which also covers fixed and any size layouts.
+     */
+    static LayoutTemplate staticLayout(String id, Point sizeHint, Range<Integer> widthRange, Range<Integer> heightRange) {
+        return new LayoutTemplate(id, sizeHint, widthRange, heightRange, null, null, 0, 0, 0);
+    }
+
+    static LayoutTemplate grid(String id, List<LayoutTemplate> cells, MajorAxis majorAxis,
+            int lineSize, float alignX, float alignY) {
+        return new LayoutTemplate(id, null, null, null, Collections.unmodifiableList(new ArrayList<>(cells)),
+            majorAxis, lineSize, alignX, alignY);
+    }
+
+    /**
+     * Builds a new layout tree.
+     *
+     * @param layouts Receives each new layout with an ID.
+     */
+    Layout build(Map<String, Layout> layouts) {
+        Layout layout;
+
+        if (cells == null) {
+            layout = Layout.sizeRange(sizeHint, widthRange, heightRange);
+        } else {
+            List<Layout> cellLayouts = new ArrayList<>(cells.size());
+
+            for (LayoutTemplate cell : cells) {
+                cellLayouts.add(cell.build(layouts));
+            }
+            GridLayout<Layout> grid = new GridLayout<>(cellLayouts, majorAxis);
+            grid.setLineSize(lineSize);
+            grid.setCellAlignment(alignX, alignY);
+            layout = grid;
+        }
+
+        if (id != null) {
+            layouts.put(id, layout);
+        }
+        return layout;
+    }
+}
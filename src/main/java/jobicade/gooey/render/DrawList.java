@@ -0,0 +1,340 @@
+package jobicade.gooey.render;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.geom.Rect;
+
+/**
+ * Collects draw commands and sorts them to minimize texture and blend mode
+ * changes, while keeping painter's order wherever it is visible.
+ *
+ * <p>Commands are sorted by layer, then by depth, then by blend mode and
+ * texture. A command's depth is one more than the greatest depth of any
+ * earlier command in the same layer that it overlaps, so overlapping commands
+ * keep their order and only independent commands are reordered. The fields
+ * are packed into a 64-bit key and sorted with a stable radix sort.
+ *
+ * <p>Overlaps are found with a uniform grid of cells, so each command is only
+ * checked against earlier commands sharing a cell.
+ */
+public final class DrawList {
+    /** The exclusive maximum layer. */
+    public static final int MAX_LAYER = 1 << 12;
+    /** The exclusive maximum blend mode. */
+    public static final int MAX_BLEND_MODE = 1 << 8;
+    /** The exclusive maximum texture ID. */
+    public static final int MAX_TEXTURE = 1 << 24;
+
+    private static final int DEPTH_BITS = 20;
+    private static final int MAX_DEPTH = (1 << DEPTH_BITS) - 1;
+
+    private final int cellShift;
+
+    private int size;
+    private int[] bounds = new int[64 * 4];
+    private int[] colors = new int[64];
+    private int[] textures = new int[64];
+    private int[] layers = new int[64];
+    private int[] blendModes = new int[64];
+
+    private long[] keys = new long[64];
+    private int[] order = new int[64];
+    private int[] depths = new int[64];
+    private boolean sorted = true;
+
+    /** Scratch space for {@link #radixSort()}, reused between sorts. */
+    private long[] sortKeys = new long[64];
+    private int[] sortOrder = new int[64];
+    private final int[] sortCounts = new int[256];
+
+    /** Earlier commands in each grid cell, reused between sorts. */
+    private final Map<Long, IntList> cells = new HashMap<>();
+
+    /**
+     * Creates a draw list with 64 pixel overlap cells.
+     */
+    public DrawList() {
+        this(6);
+    }
+
+    /**
+     * @param cellShift The base 2 logarithm of the overlap cell size. Cells
+     * around the size of typical commands work best.
+     */
+    public DrawList(int cellShift) {
+        if (cellShift < 0 || cellShift > 30) {
+            throw new IllegalArgumentException("Cell shift out of range");
+        }
+        this.cellShift = cellShift;
+    }
+
+    /**
+     * Adds a command after all existing commands.
+     *
+     * @param texture The texture ID, between 0 and {@link #MAX_TEXTURE}.
+     * @param layer The layer, between 0 and {@link #MAX_LAYER}. Lower layers
+     * are always drawn first.
+     * @param blendMode The blend mode ID, between 0 and
+     * {@link #MAX_BLEND_MODE}.
+     */
+    public void add(Rect bounds, Color color, int texture, int layer, int blendMode) {
+        if (texture < 0 || texture >= MAX_TEXTURE) {
+            throw new IllegalArgumentException("Texture out of range");
+        } else if (layer < 0 || layer >= MAX_LAYER) {
+            throw new IllegalArgumentException("Layer out of range");
+        } else if (blendMode < 0 || blendMode >= MAX_BLEND_MODE) {
+            throw new IllegalArgumentException("Blend mode out of range");
+        }
+
+        if (size == colors.length) {
+            grow();
+        }
+        int i = size++;
+        this.bounds[i * 4] = bounds.getX();
+        this.bounds[i * 4 + 1] = bounds.getY();
+        this.bounds[i * 4 + 2] = bounds.getWidth();
+        this.bounds[i * 4 + 3] = bounds.getHeight();
+        colors[i] = color.packArgb();
+        textures[i] = texture;
+        layers[i] = layer;
+        blendModes[i] = blendMode;
+        sorted = false;
+    }
+
+    private void grow() {
+        int capacity = colors.length * 2;
+
+        bounds = Arrays.copyOf(bounds, capacity * 4);
+        colors = Arrays.copyOf(colors, capacity);
+        textures = Arrays.copyOf(textures, capacity);
+        layers = Arrays.copyOf(layers, capacity);
+        blendModes = Arrays.copyOf(blendModes, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        order = Arrays.copyOf(order, capacity);
+        depths = Arrays.copyOf(depths, capacity);
+        sortKeys = new long[capacity];
+        sortOrder = new int[capacity];
+    }
+
+    /**
+     * Removes all commands, keeping allocated storage.
+     */
+    public void clear() {
+        size = 0;
+        sorted = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sorts the commands. Accessors return commands in insertion order until
+     * this is called, and in sorted order after.
+     */
+    public void sort() {
+        if (sorted) {
+            return;
+        }
+        computeDepths();
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = (long)layers[i] << 52
+                | (long)depths[i] << 32
+                | (long)blendModes[i] << 24
+                | textures[i];
+            order[i] = i;
+        }
+        radixSort();
+        sorted = true;
+    }
+
+    private void computeDepths() {
+        for (IntList cell : cells.values()) {
+            cell.size = 0;
+        }
+
+        for (int i = 0; i < size; i++) {
+            int minX = bounds[i * 4];
+            int minY = bounds[i * 4 + 1];
+            int maxX = minX + bounds[i * 4 + 2];
+            int maxY = minY + bounds[i * 4 + 3];
+            int depth = 0;
+
+            if (minX == maxX || minY == maxY) {
+                // Empty commands draw nothing and cannot overlap
+                depths[i] = 0;
+                continue;
+            }
+            int minCellX = minX >> cellShift;
+            int minCellY = minY >> cellShift;
+            int maxCellX = (maxX - 1) >> cellShift;
+            int maxCellY = (maxY - 1) >> cellShift;
+
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    IntList cell = getCell(layers[i], cellX, cellY);
+
+                    for (int k = 0; k < cell.size; k++) {
+                        int j = cell.values[k];
+
+                        if (layers[j] == layers[i] && depths[j] >= depth
+                                && overlaps(j, minX, minY, maxX, maxY)) {
+                            depth = depths[j] + 1;
+                        }
+                    }
+                    cell.add(i);
+                }
+            }
+
+            if (depth > MAX_DEPTH) {
+                throw new IllegalStateException("Too many overlapping commands");
+            }
+            depths[i] = depth;
+        }
+        // Stale cells are kept for reuse, but only while the map stays small
+        if (cells.size() > 4 * size + 64) {
+            cells.clear();
+        }
+    }
+
+    private IntList getCell(int layer, int cellX, int cellY) {
+        // Colliding keys only cost extra overlap checks
+        Long key = (long)layer << 48 ^ (long)(cellX & 0xffffff) << 24 ^ (cellY & 0xffffff);
+        IntList cell = cells.get(key);
+
+        if (cell == null) {
+            cell = new IntList();
+            cells.put(key, cell);
+        }
+        return cell;
+    }
+
+    private boolean overlaps(int j, int minX, int minY, int maxX, int maxY) {
+        int otherMinX = bounds[j * 4];
+        int otherMinY = bounds[j * 4 + 1];
+
+        return otherMinX < maxX && minX < otherMinX + bounds[j * 4 + 2]
+            && otherMinY < maxY && minY < otherMinY + bounds[j * 4 + 3];
+    }
+
+    /**
+     * Sorts keys and order together by bytes from least significant, skipping
+     * bytes which are the same in every key.
+     */
+    private void radixSort() {
+        long[] keysFrom = keys;
+        int[] orderFrom = order;
+        long[] keysTo = sortKeys;
+        int[] orderTo = sortOrder;
+        int[] counts = sortCounts;
+
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                ++counts[(int)(keysFrom[i] >>> shift) & 0xff];
+            }
+            if (size == 0 || counts[(int)(keysFrom[0] >>> shift) & 0xff] == size) {
+                continue;
+            }
+
+            int total = 0;
+            for (int b = 0; b < 256; b++) {
+                int count = counts[b];
+                counts[b] = total;
+                total += count;
+            }
+            for (int i = 0; i < size; i++) {
+                int position = counts[(int)(keysFrom[i] >>> shift) & 0xff]++;
+                keysTo[position] = keysFrom[i];
+                orderTo[position] = orderFrom[i];
+            }
+
+            long[] swapKeys = keysFrom;
+            keysFrom = keysTo;
+            keysTo = swapKeys;
+            int[] swapOrder = orderFrom;
+            orderFrom = orderTo;
+            orderTo = swapOrder;
+        }
+
+        // After an odd number of passes the result is in the scratch arrays
+        if (keysFrom != keys) {
+            sortKeys = keys;
+            sortOrder = order;
+            keys = keysFrom;
+            order = orderFrom;
+        }
+    }
+
+    private int command(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index);
+        }
+        return sorted ? order[index] : index;
+    }
+
+    /**
+     * @return The insertion index of the command at {@code index}.
+     */
+    public int getInsertionIndex(int index) {
+        return command(index);
+    }
+
+    public Rect getBounds(int index) {
+        int i = command(index);
+        return Rect.bySize(bounds[i * 4], bounds[i * 4 + 1], bounds[i * 4 + 2], bounds[i * 4 + 3]);
+    }
+
+    public Color getColor(int index) {
+        return Color.unpackArgb(colors[command(index)]);
+    }
+
+    public int getTexture(int index) {
+        return textures[command(index)];
+    }
+
+    public int getLayer(int index) {
+        return layers[command(index)];
+    }
+
+    public int getBlendMode(int index) {
+        return blendModes[command(index)];
+    }
+
+    /**
+     * @return The number of times the texture or blend mode changes between
+     * consecutive commands in the current order.
+     */
+    public int countStateChanges() {
+        int changes = 0;
+
+        for (int index = 1; index < size; index++) {
+            int a = command(index - 1);
+            int b = command(index);
+
+            if (textures[a] != textures[b] || blendModes[a] != blendModes[b]) {
+                ++changes;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * A growable list of primitive ints.
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package jobicade.gooey.render;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.GooeyMath;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+
+/**
+ * Generates quads drawing a texture region at any size, keeping its borders
+ * at their original size and stretching or tiling the rest. Geometry is
+ * cached by size, so drawing an element whose size has not changed costs a
+ * single lookup.
+ *
+ * <p>The source region is split into a 3x3 grid by its inner rectangle. The
+ * corners are drawn at their texel size, the edges are resized along one axis
+ * and the center along both. Texels map to pixels one to one. If an element is
+ * smaller than the borders on either axis, the borders on that axis are
+ * shrunk in proportion and nothing is drawn between them.
+ *
+ * <p>A plain tiled texture is a nine-slice in {@link Mode#TILE} whose inner
+ * rectangle is the whole source.
+ */
+public final class NineSlice {
+    /**
+     * How edges and the center fill space larger than their source.
+     */
+    public enum Mode {
+        /** Scales the source to fill the space. */
+        STRETCH,
+        /**
+         * Repeats the source at its texel size from the minimum corner,
+         * cutting off the last repeat.
+         */
+        TILE
+    }
+
+    private final UvRect uv;
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final Rect inner;
+    private final Mode mode;
+
+    private final Cache<Point, SliceGeometry> cache;
+
+    /**
+     * @param uv The source region of the texture.
+     * @param sourceSize The size of the source region in texels.
+     * @param inner The center of the source region in texels, relative to its
+     * minimum corner. The space around it forms the borders.
+     * @param maxCachedSizes The maximum number of sizes to keep geometry for
+     * before the least recently used are evicted.
+     */
+    public NineSlice(UvRect uv, Point sourceSize, Rect inner, Mode mode, int maxCachedSizes) {
+        if (sourceSize.getX() <= 0 || sourceSize.getY() <= 0) {
+            throw new IllegalArgumentException("Source size must be positive");
+        } else if (inner.getMinX() < 0 || inner.getMinY() < 0
+                || inner.getMaxX() > sourceSize.getX() || inner.getMaxY() > sourceSize.getY()) {
+            throw new IllegalArgumentException("Inner rectangle outside source");
+        }
+        this.uv = uv;
+        this.sourceWidth = sourceSize.getX();
+        this.sourceHeight = sourceSize.getY();
+        this.inner = inner;
+        this.mode = mode;
+
+        cache = CacheBuilder.newBuilder().maximumSize(maxCachedSizes).build();
+    }
+
+    public UvRect getUv() {
+        return uv;
+    }
+
+    public Point getSourceSize() {
+        return new Point(sourceWidth, sourceHeight);
+    }
+
+    public Rect getInner() {
+        return inner;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Adds quads covering {@code bounds} to {@code batch}.
+     */
+    public void draw(QuadBatch batch, Rect bounds, Color color) {
+        getGeometry(bounds.getSize()).addTo(batch, bounds.getPosition(), color);
+    }
+
+    /**
+     * Returns the geometry for an element of the given size, generating it
+     * only if it is not cached.
+     *
+     * @throws IllegalArgumentException If either dimension is negative.
+     */
+    public SliceGeometry getGeometry(Point size) {
+        SliceGeometry geometry = cache.getIfPresent(size);
+
+        if (geometry == null) {
+            geometry = generate(size);
+            cache.put(size, geometry);
+        }
+        return geometry;
+    }
+
+    /**
+     * Generates the geometry for an element of the given size, bypassing the
+     * cache.
+     *
+     * @throws IllegalArgumentException If either dimension is negative.
+     */
+    public SliceGeometry generate(Point size) {
+        if (size.getX() < 0 || size.getY() < 0) {
+            throw new IllegalArgumentException("Negative size");
+        }
+        Segments columns = split(size.getX(), sourceWidth, inner.getMinX(), sourceWidth - inner.getMaxX());
+        Segments rows = split(size.getY(), sourceHeight, inner.getMinY(), sourceHeight - inner.getMaxY());
+
+        int quads = columns.count * rows.count;
+        int[] bounds = new int[quads * 4];
+        float[] uvs = new float[quads * 4];
+        float uvWidth = uv.getMaxU() - uv.getMinU();
+        float uvHeight = uv.getMaxV() - uv.getMinV();
+        int i = 0;
+
+        for (int row = 0; row < rows.count; row++) {
+            for (int column = 0; column < columns.count; column++) {
+                bounds[i] = columns.positions[column * 2];
+                bounds[i + 1] = rows.positions[row * 2];
+                bounds[i + 2] = columns.positions[column * 2 + 1];
+                bounds[i + 3] = rows.positions[row * 2 + 1];
+
+                uvs[i] = uv.getMinU() + uvWidth * columns.params[column * 2];
+                uvs[i + 1] = uv.getMinV() + uvHeight * rows.params[row * 2];
+                uvs[i + 2] = uv.getMinU() + uvWidth * columns.params[column * 2 + 1];
+                uvs[i + 3] = uv.getMinV() + uvHeight * rows.params[row * 2 + 1];
+                i += 4;
+            }
+        }
+        return new SliceGeometry(size, bounds, uvs);
+    }
+
+    /**
+     * Splits one axis of an element into non-empty segments, each with its
+     * source range as a fraction of the source length.
+     *
+     * @param length The length of the element.
+     * @param sourceLength The length of the source in texels.
+     * @param minBorder The border before the center in texels.
+     * @param maxBorder The border after the center in texels.
+     */
+    private Segments split(int length, int sourceLength, int minBorder, int maxBorder) {
+        int borders = minBorder + maxBorder;
+        int minLength = minBorder;
+        int maxLength = maxBorder;
+
+        if (length < borders) {
+            minLength = (int)((long)minBorder * length / borders);
+            maxLength = length - minLength;
+        }
+        int centerStart = minLength;
+        int centerEnd = length - maxLength;
+        int centerSource = sourceLength - borders;
+
+        int tiles;
+        if (centerEnd == centerStart) {
+            tiles = 0;
+        } else if (mode == Mode.TILE && centerSource > 0) {
+            tiles = GooeyMath.ceilDiv(centerEnd - centerStart, centerSource);
+        } else {
+            tiles = 1;
+        }
+        Segments segments = new Segments(tiles + 2);
+
+        if (minLength > 0) {
+            segments.add(0, minLength, 0, minBorder, sourceLength);
+        }
+        if (tiles > 1) {
+            for (int start = centerStart; start < centerEnd; start += centerSource) {
+                int end = Math.min(start + centerSource, centerEnd);
+                segments.add(start, end, minBorder, minBorder + end - start, sourceLength);
+            }
+        } else if (tiles == 1) {
+            int end = mode == Mode.TILE && centerSource > 0
+                ? minBorder + centerEnd - centerStart : sourceLength - maxBorder;
+            segments.add(centerStart, centerEnd, minBorder, end, sourceLength);
+        }
+        if (maxLength > 0) {
+            segments.add(length - maxLength, length, sourceLength - maxBorder, sourceLength, sourceLength);
+        }
+        return segments;
+    }
+
+    /**
+     * @return The approximate number of cached sizes.
+     */
+    public long getCacheSize() {
+        return cache.size();
+    }
+
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Segments along one axis, as start and end positions with start and end
+     * source parameters.
+     */
+    private static final class Segments {
+        final int[] positions;
+        final float[] params;
+        int count;
+
+        Segments(int capacity) {
+            positions = new int[capacity * 2];
+            params = new float[capacity * 2];
+        }
+
+        void add(int start, int end, int sourceStart, int sourceEnd, int sourceLength) {
+            positions[count * 2] = start;
+            positions[count * 2 + 1] = end;
+            params[count * 2] = (float)sourceStart / sourceLength;
+            params[count * 2 + 1] = (float)sourceEnd / sourceLength;
+            ++count;
+        }
+    }
+}
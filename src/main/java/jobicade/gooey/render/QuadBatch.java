@@ -0,0 +1,208 @@
+package jobicade.gooey.render;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.geom.Rect;
+
+/**
+ * Builds interleaved vertex data for axis-aligned quads into direct byte
+ * buffers, independent of any graphics API. Buffers use native byte order and
+ * can be uploaded as they are.
+ *
+ * <p>Vertices are written to pages holding a fixed number of quads. When a page
+ * is full a new page is started instead of reallocating, so existing vertex
+ * data is never copied. Every page shares the index buffer from
+ * {@link #createIndexBuffer()}. Pages are kept after {@link #clear()} so a
+ * batch reused every frame stops allocating once it reaches its peak size.
+ *
+ * <p>Each quad is written as four vertices in the order min X min Y, min X max
+ * Y, max X max Y, max X min Y, to be drawn as two triangles.
+ */
+public final class QuadBatch {
+    /** The maximum number of quads in a page, such that indices fit in 16 bits. */
+    public static final int MAX_PAGE_QUADS = 0x10000 / 4;
+
+    private static final int VERTICES_PER_QUAD = 4;
+    private static final int INDICES_PER_QUAD = 6;
+
+    private final VertexFormat format;
+    private final int pageQuads;
+
+    private final int positionOffset;
+    private final int colorOffset;
+    private final int uvOffset;
+    private final int quadSize;
+
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private int pageIndex;
+    private ByteBuffer page;
+    private int pageQuadCount;
+
+    /**
+     * Creates a batch with the largest page size.
+     */
+    public QuadBatch(VertexFormat format) {
+        this(format, MAX_PAGE_QUADS);
+    }
+
+    /**
+     * @param pageQuads The number of quads per page, between 1 and
+     * {@link #MAX_PAGE_QUADS}.
+     */
+    public QuadBatch(VertexFormat format, int pageQuads) {
+        if (pageQuads < 1 || pageQuads > MAX_PAGE_QUADS) {
+            throw new IllegalArgumentException("Page size out of range");
+        }
+        this.format = format;
+        this.pageQuads = pageQuads;
+
+        positionOffset = format.getOffset(VertexAttribute.POSITION);
+        colorOffset = format.getOffset(VertexAttribute.COLOR);
+        uvOffset = format.getOffset(VertexAttribute.UV);
+        quadSize = format.getStride() * VERTICES_PER_QUAD;
+
+        page = allocatePage();
+        pages.add(page);
+    }
+
+    private ByteBuffer allocatePage() {
+        return ByteBuffer.allocateDirect(pageQuads * quadSize).order(ByteOrder.nativeOrder());
+    }
+
+    public VertexFormat getFormat() {
+        return format;
+    }
+
+    public int getPageQuads() {
+        return pageQuads;
+    }
+
+    /**
+     * Adds a quad with the full texture.
+     */
+    public void add(Rect bounds, Color color) {
+        add(bounds, color, UvRect.FULL);
+    }
+
+    /**
+     * Adds a quad. Attributes missing from the format are ignored.
+     */
+    public void add(Rect bounds, Color color, UvRect uv) {
+        add(bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY(),
+            color.packRgba(),
+            uv.getMinU(), uv.getMinV(), uv.getMaxU(), uv.getMaxV());
+    }
+
+    /**
+     * Adds a quad from primitive values, avoiding intermediate objects.
+     *
+     * @param rgba The color packed as by {@link Color#packRgba()}.
+     */
+    public void add(int minX, int minY, int maxX, int maxY, int rgba,
+            float minU, float minV, float maxU, float maxV) {
+        if (pageQuadCount == pageQuads) {
+            nextPage();
+        }
+        int stride = format.getStride();
+        int base = pageQuadCount++ * quadSize;
+
+        putVertex(base, minX, minY, rgba, minU, minV);
+        putVertex(base + stride, minX, maxY, rgba, minU, maxV);
+        putVertex(base + 2 * stride, maxX, maxY, rgba, maxU, maxV);
+        putVertex(base + 3 * stride, maxX, minY, rgba, maxU, minV);
+    }
+
+    private void putVertex(int index, int x, int y, int rgba, float u, float v) {
+        if (positionOffset != -1) {
+            page.putFloat(index + positionOffset, x);
+            page.putFloat(index + positionOffset + 4, y);
+        }
+        if (colorOffset != -1) {
+            page.put(index + colorOffset, (byte)(rgba >> 24));
+            page.put(index + colorOffset + 1, (byte)(rgba >> 16));
+            page.put(index + colorOffset + 2, (byte)(rgba >> 8));
+            page.put(index + colorOffset + 3, (byte)rgba);
+        }
+        if (uvOffset != -1) {
+            page.putFloat(index + uvOffset, u);
+            page.putFloat(index + uvOffset + 4, v);
+        }
+    }
+
+    private void nextPage() {
+        if (++pageIndex == pages.size()) {
+            pages.add(allocatePage());
+        }
+        page = pages.get(pageIndex);
+        pageQuadCount = 0;
+    }
+
+    /**
+     * Removes all quads, keeping allocated pages for reuse.
+     */
+    public void clear() {
+        pageIndex = 0;
+        page = pages.get(0);
+        pageQuadCount = 0;
+    }
+
+    public int getQuadCount() {
+        return pageIndex * pageQuads + pageQuadCount;
+    }
+
+    /**
+     * @return The number of pages containing quads.
+     */
+    public int getPageCount() {
+        return pageQuadCount == 0 ? pageIndex : pageIndex + 1;
+    }
+
+    /**
+     * @return The number of quads in the page at {@code index}.
+     */
+    public int getPageQuadCount(int index) {
+        if (index < 0 || index >= getPageCount()) {
+            throw new IndexOutOfBoundsException("Page " + index);
+        }
+        return index == pageIndex ? pageQuadCount : pageQuads;
+    }
+
+    /**
+     * Returns a view of the vertex data in a page, from position zero to the
+     * end of the last quad. The view shares content with the batch and is
+     * invalidated by {@link #clear()}.
+     */
+    public ByteBuffer getPage(int index) {
+        int quads = getPageQuadCount(index);
+        ByteBuffer view = pages.get(index).duplicate().order(ByteOrder.nativeOrder());
+        view.position(0).limit(quads * quadSize);
+        return view;
+    }
+
+    /**
+     * Creates a direct buffer of unsigned 16-bit triangle indices covering a
+     * full page. Only the first {@code 6 * quads} indices need to be drawn for
+     * a page with fewer quads.
+     */
+    public ByteBuffer createIndexBuffer() {
+        ByteBuffer indices = ByteBuffer.allocateDirect(pageQuads * INDICES_PER_QUAD * 2)
+            .order(ByteOrder.nativeOrder());
+
+        for (int i = 0; i < pageQuads; i++) {
+            int vertex = i * VERTICES_PER_QUAD;
+
+            indices.putShort((short)vertex);
+            indices.putShort((short)(vertex + 1));
+            indices.putShort((short)(vertex + 2));
+            indices.putShort((short)(vertex + 2));
+            indices.putShort((short)(vertex + 3));
+            indices.putShort((short)vertex);
+        }
+        indices.flip();
+        return indices;
+    }
+}
@@ -0,0 +1,64 @@
+package jobicade.gooey.render;
+
+import jobicade.gooey.Color;
+import jobicade.gooey.geom.Point;
+import jobicade.gooey.geom.Rect;
+
+/**
+ * Immutable quads generated by a {@link NineSlice} for one size. Quad bounds
+ * are relative to the minimum corner of the element, so the same geometry can
+ * be drawn at any position.
+ */
+public final class SliceGeometry {
+    private final Point size;
+    /** Min X, min Y, max X and max Y per quad. */
+    private final int[] bounds;
+    /** Min U, min V, max U and max V per quad. */
+    private final float[] uvs;
+
+    // package-private
+    SliceGeometry(Point size, int[] bounds, float[] uvs) {
+        this.size = size;
+        this.bounds = bounds;
+        this.uvs = uvs;
+    }
+
+    /**
+     * @return The size of the element covered by the quads.
+     */
+    public Point getSize() {
+        return size;
+    }
+
+    public int getQuadCount() {
+        return bounds.length / 4;
+    }
+
+    /**
+     * @return The bounds of the quad at {@code index}, relative to the
+     * minimum corner of the element.
+     */
+    public Rect getBounds(int index) {
+        int i = index * 4;
+        return Rect.byCorners(bounds[i], bounds[i + 1], bounds[i + 2], bounds[i + 3]);
+    }
+
+    public UvRect getUv(int index) {
+        int i = index * 4;
+        return UvRect.byCorners(uvs[i], uvs[i + 1], uvs[i + 2], uvs[i + 3]);
+    }
+
+    /**
+     * Adds every quad to {@code batch}, offset by {@code position}.
+     */
+    public void addTo(QuadBatch batch, Point position, Color color) {
+        int x = position.getX();
+        int y = position.getY();
+        int rgba = color.packRgba();
+
+        for (int i = 0; i < bounds.length; i += 4) {
+            batch.add(x + bounds[i], y + bounds[i + 1], x + bounds[i + 2], y + bounds[i + 3], rgba,
+                uvs[i], uvs[i + 1], uvs[i + 2], uvs[i + 3]);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package jobicade.gooey.render;
+
+import java.io.Serializable;
+
+import jobicade.gooey.geom.Rect;
+
+/**
+ * Represents an immutable rectangle in normalized texture coordinates, where
+ * (0,0) is the minimum corner of the texture and (1,1) the maximum corner.
+ *
+ * <p>Unlike {@link Rect}, the minimum may be greater than the maximum to flip
+ * the texture along either axis.
+ */
+public final class UvRect implements Serializable {
+    private static final long serialVersionUID = 1L;
+    public static final UvRect FULL = new UvRect(0, 0, 1, 1);
+
+    private final float minU;
+    private final float minV;
+    private final float maxU;
+    private final float maxV;
+
+    private UvRect(float minU, float minV, float maxU, float maxV) {
+        this.minU = minU;
+        this.minV = minV;
+        this.maxU = maxU;
+        this.maxV = maxV;
+    }
+
+    /**
+     * UvRects are equal only to other UvRects with equal corners.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof UvRect) {
+            UvRect uv = (UvRect)obj;
+            return minU == uv.minU && minV == uv.minV
+                && maxU == uv.maxU && maxV == uv.maxV;
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * UvRects are equal only to other UvRects with equal corners.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return (((31 + Float.hashCode(minU)) * 31 + Float.hashCode(minV)) * 31
+            + Float.hashCode(maxU)) * 31 + Float.hashCode(maxV);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{minU: %f, minV: %f, maxU: %f, maxV: %f}",
+            getClass().getName(), minU, minV, maxU, maxV);
+    }
+
+    /**
+     * Creates a new UvRect using its minimum and maximum corners.
+     */
+    public static UvRect byCorners(float minU, float minV, float maxU, float maxV) {
+        return new UvRect(minU, minV, maxU, maxV);
+    }
+
+    /**
+     * Creates a new UvRect covering a region of texels.
+     *
+     * @param texels The region in texel space.
+     * @param textureWidth The width of the whole texture in texels.
+     * @param textureHeight The height of the whole texture in texels.
+     */
+    public static UvRect byTexels(Rect texels, int textureWidth, int textureHeight) {
+        return new UvRect(
+            (float)texels.getMinX() / textureWidth,
+            (float)texels.getMinY() / textureHeight,
+            (float)texels.getMaxX() / textureWidth,
+            (float)texels.getMaxY() / textureHeight);
+    }
+
+    public float getMinU() {
+        return minU;
+    }
+
+    public float getMinV() {
+        return minV;
+    }
+
+    public float getMaxU() {
+        return maxU;
+    }
+
+    public float getMaxV() {
+        return maxV;
+    }
+
+    /**
+     * Interpolates a sub-region of this UvRect.
+     *
+     * @param minTu U parameter of the minimum corner, 0 for min U and 1 for max U.
+     * @param minTv V parameter of the minimum corner.
+     * @param maxTu U parameter of the maximum corner.
+     * @param maxTv V parameter of the maximum corner.
+     * @return The sub-region.
+     */
+    public UvRect interpolate(float minTu, float minTv, float maxTu, float maxTv) {
+        float width = maxU - minU;
+        float height = maxV - minV;
+
+        return new UvRect(
+            minU + width * minTu, minV + height * minTv,
+            minU + width * maxTu, minV + height * maxTv);
+    }
+}
@@ -0,0 +1,26 @@
+package jobicade.gooey.render;
+
+/**
+ * A component of a vertex written by {@link QuadBatch}.
+ */
+public enum VertexAttribute {
+    /** Screen position as two 32-bit floats, X then Y. */
+    POSITION(8),
+    /** Color as four unsigned bytes, in RGBA order. */
+    COLOR(4),
+    /** Texture coordinates as two 32-bit floats, U then V. */
+    UV(8);
+
+    private final int size;
+
+    VertexAttribute(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return The size of this attribute in bytes.
+     */
+    public int getSize() {
+        return size;
+    }
+}
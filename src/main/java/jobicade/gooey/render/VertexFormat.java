@@ -0,0 +1,88 @@
+package jobicade.gooey.render;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable interleaved vertex layout, made of attributes in order.
+ */
+public final class VertexFormat {
+    public static final VertexFormat POSITION = of(VertexAttribute.POSITION);
+    public static final VertexFormat POSITION_COLOR = of(VertexAttribute.POSITION, VertexAttribute.COLOR);
+    public static final VertexFormat POSITION_UV = of(VertexAttribute.POSITION, VertexAttribute.UV);
+    public static final VertexFormat POSITION_COLOR_UV = of(VertexAttribute.POSITION, VertexAttribute.COLOR, VertexAttribute.UV);
+
+    private final List<VertexAttribute> attributes;
+    private final int[] offsets = new int[VertexAttribute.values().length];
+    private final int stride;
+
+    private VertexFormat(VertexAttribute[] attributes) {
+        this.attributes = Collections.unmodifiableList(Arrays.asList(attributes.clone()));
+        Arrays.fill(offsets, -1);
+
+        int offset = 0;
+        for (VertexAttribute attribute : attributes) {
+            if (offsets[attribute.ordinal()] != -1) {
+                throw new IllegalArgumentException("Duplicate attribute " + attribute);
+            }
+            offsets[attribute.ordinal()] = offset;
+            offset += attribute.getSize();
+        }
+        stride = offset;
+    }
+
+    /**
+     * Creates a format with the given attributes in order.
+     *
+     * @throws IllegalArgumentException If there are no attributes or an
+     * attribute is repeated.
+     */
+    public static VertexFormat of(VertexAttribute... attributes) {
+        if (attributes.length == 0) {
+            throw new IllegalArgumentException("No attributes");
+        }
+        return new VertexFormat(attributes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof VertexFormat) {
+            return attributes.equals(((VertexFormat)obj).attributes);
+        }
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return attributes.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{attributes: %s}", getClass().getName(), attributes);
+    }
+
+    public List<VertexAttribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return The size of one vertex in bytes.
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * @return The byte offset of {@code attribute} inside each vertex, or
+     * {@code -1} if this format does not contain it.
+     */
+    public int getOffset(VertexAttribute attribute) {
+        return offsets[attribute.ordinal()];
+    }
+
+    public boolean contains(VertexAttribute attribute) {
+        return getOffset(attribute) != -1;
+    }
+}
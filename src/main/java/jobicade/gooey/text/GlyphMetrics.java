@@ -0,0 +1,20 @@
+package jobicade.gooey.text;
+
+/**
+ * Measures the glyphs of a font. Implementations are used as cache keys by
+ * {@link TextMeasurer}, so they should either be shared between uses of the
+ * same font or implement {@code equals} and {@code hashCode}, and their
+ * metrics must not change.
+ */
+public interface GlyphMetrics {
+    /**
+     * @return The horizontal distance from the start of the glyph for
+     * {@code codePoint} to the start of the next glyph, in pixels.
+     */
+    int getAdvance(int codePoint);
+
+    /**
+     * @return The vertical distance between consecutive lines, in pixels.
+     */
+    int getLineHeight();
+}
@@ -0,0 +1,78 @@
+package jobicade.gooey.text;
+
+import jobicade.gooey.geom.Point;
+
+/**
+ * The immutable result of measuring and breaking a string into lines.
+ *
+ * @see TextMeasurer#measure(String, GlyphMetrics, int)
+ */
+public final class MeasuredText {
+    private final String text;
+    private final int lineHeight;
+    /** Start index, end index and width per line. */
+    private final int[] lines;
+    private final int width;
+
+    // package-private
+    MeasuredText(String text, int lineHeight, int[] lines) {
+        this.text = text;
+        this.lineHeight = lineHeight;
+        this.lines = lines;
+
+        int width = 0;
+        for (int i = 2; i < lines.length; i += 3) {
+            width = Math.max(width, lines[i]);
+        }
+        this.width = width;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getLineCount() {
+        return lines.length / 3;
+    }
+
+    /**
+     * @return The text of the line at {@code index}, without the spaces or
+     * line break it was broken at.
+     */
+    public String getLine(int index) {
+        return text.substring(getLineStart(index), getLineEnd(index));
+    }
+
+    /**
+     * @return The index in the text of the first character of a line.
+     */
+    public int getLineStart(int index) {
+        return lines[index * 3];
+    }
+
+    /**
+     * @return The index in the text after the last character of a line.
+     */
+    public int getLineEnd(int index) {
+        return lines[index * 3 + 1];
+    }
+
+    public int getLineWidth(int index) {
+        return lines[index * 3 + 2];
+    }
+
+    /**
+     * @return The width of the widest line.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return getLineCount() * lineHeight;
+    }
+
+    public Point getSize() {
+        return new Point(width, getHeight());
+    }
+}
@@ -0,0 +1,82 @@
+package jobicade.gooey.text;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Glyph metrics held in memory, for tests and tools where no real font is
+ * available. Code points without an advance of their own use the default.
+ */
+public final class SimpleGlyphMetrics implements GlyphMetrics {
+    private final int lineHeight;
+    private final int defaultAdvance;
+    private final ImmutableMap<Integer, Integer> advances;
+
+    /**
+     * @param advances Advances for individual code points.
+     */
+    public SimpleGlyphMetrics(int lineHeight, int defaultAdvance, Map<Integer, Integer> advances) {
+        if (lineHeight < 0 || defaultAdvance < 0) {
+            throw new IllegalArgumentException("Negative metrics");
+        }
+        for (int advance : advances.values()) {
+            if (advance < 0) {
+                throw new IllegalArgumentException("Negative advance");
+            }
+        }
+        this.lineHeight = lineHeight;
+        this.defaultAdvance = defaultAdvance;
+        this.advances = ImmutableMap.copyOf(advances);
+    }
+
+    /**
+     * @return Metrics where every code point has the same advance.
+     */
+    public static SimpleGlyphMetrics monospace(int lineHeight, int advance) {
+        return new SimpleGlyphMetrics(lineHeight, advance, ImmutableMap.of());
+    }
+
+    @Override
+    public int getAdvance(int codePoint) {
+        Integer advance = advances.get(codePoint);
+        return advance != null ? advance : defaultAdvance;
+    }
+
+    @Override
+    public int getLineHeight() {
+        return lineHeight;
+    }
+
+    /**
+     * Metrics are equal only to other SimpleGlyphMetrics with the same
+     * advances and line height.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof SimpleGlyphMetrics) {
+            SimpleGlyphMetrics metrics = (SimpleGlyphMetrics)obj;
+            return lineHeight == metrics.lineHeight
+                && defaultAdvance == metrics.defaultAdvance
+                && advances.equals(metrics.advances);
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * Metrics are equal only to other SimpleGlyphMetrics with the same
+     * advances and line height.
+     * <p>{@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return ((31 + lineHeight) * 31 + defaultAdvance) * 31 + advances.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{lineHeight: %d, defaultAdvance: %d, advances: %s}",
+            getClass().getName(), lineHeight, defaultAdvance, advances);
+    }
+}
@@ -0,0 +1,200 @@
+package jobicade.gooey.text;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Measures text and breaks it into lines, caching results by string, font and
+ * wrap width so unchanged text is only measured once.
+ *
+ * <p>Lines are broken at {@code '\n'} and wrapped greedily at spaces. Spaces
+ * at a wrap are dropped and may overhang the wrap width. A word wider than the
+ * wrap width is broken between characters, but every line holds at least one
+ * character.
+ */
+public final class TextMeasurer {
+    /** A wrap width which never wraps lines. */
+    public static final int NO_WRAP = Integer.MAX_VALUE;
+
+    private final Cache<Key, MeasuredText> cache;
+
+    /**
+     * @param maxCachedEntries The maximum number of results kept in the cache
+     * before the least recently used are evicted.
+     */
+    public TextMeasurer(int maxCachedEntries) {
+        cache = CacheBuilder.newBuilder().maximumSize(maxCachedEntries).build();
+    }
+
+    /**
+     * @return The width of {@code text} without wrapping.
+     */
+    public int getWidth(String text, GlyphMetrics font) {
+        return measure(text, font, NO_WRAP).getWidth();
+    }
+
+    /**
+     * @return The width of the widest run of characters between spaces and
+     * line breaks, the narrowest wrap width which breaks no words.
+     */
+    public static int getWidestWord(String text, GlyphMetrics font) {
+        int widest = 0;
+        int width = 0;
+
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+
+            if (codePoint == ' ' || codePoint == '\n') {
+                width = 0;
+            } else {
+                width += font.getAdvance(codePoint);
+                widest = Math.max(widest, width);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return widest;
+    }
+
+    /**
+     * Measures text, breaking it only if it is not cached.
+     *
+     * @param wrapWidth The maximum width of a line, or {@link #NO_WRAP}.
+     */
+    public MeasuredText measure(String text, GlyphMetrics font, int wrapWidth) {
+        Key key = new Key(text, font, wrapWidth);
+        MeasuredText measured = cache.getIfPresent(key);
+
+        if (measured == null) {
+            measured = breakLines(text, font, wrapWidth);
+            cache.put(key, measured);
+        }
+        return measured;
+    }
+
+    /**
+     * Measures text and breaks it into lines, bypassing the cache.
+     *
+     * @param wrapWidth The maximum width of a line, or {@link #NO_WRAP}.
+     */
+    public static MeasuredText breakLines(String text, GlyphMetrics font, int wrapWidth) {
+        if (wrapWidth < 0) {
+            throw new IllegalArgumentException("Negative wrap width");
+        }
+        LineBuilder lines = new LineBuilder();
+
+        int lineStart = 0;
+        int lineWidth = 0;
+        // Trailing spaces are not part of a line
+        int contentEnd = 0;
+        int contentWidth = 0;
+        // The last place the line can be wrapped, or -1 if there is none
+        int breakEnd = -1;
+        int breakWidth = 0;
+        int breakNext = -1;
+        int breakNextWidth = 0;
+
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int next = i + Character.charCount(codePoint);
+
+            if (codePoint == '\n') {
+                lines.add(lineStart, contentEnd, contentWidth);
+                lineStart = contentEnd = next;
+                lineWidth = contentWidth = 0;
+                breakEnd = -1;
+            } else {
+                int advance = font.getAdvance(codePoint);
+
+                if (codePoint == ' ') {
+                    if (contentEnd > lineStart) {
+                        breakEnd = contentEnd;
+                        breakWidth = contentWidth;
+                    }
+                    lineWidth += advance;
+                    breakNext = next;
+                    breakNextWidth = lineWidth;
+                } else {
+                    if (advance > wrapWidth - lineWidth && breakEnd != -1) {
+                        lines.add(lineStart, breakEnd, breakWidth);
+                        lineStart = breakNext;
+                        lineWidth -= breakNextWidth;
+                        contentWidth = lineWidth;
+                        breakEnd = -1;
+                    }
+                    if (advance > wrapWidth - lineWidth && i > lineStart) {
+                        // A line of only leading spaces is dropped like any other spaces
+                        if (contentEnd > lineStart) {
+                            lines.add(lineStart, contentEnd, contentWidth);
+                        }
+                        lineStart = i;
+                        lineWidth = 0;
+                    }
+                    lineWidth += advance;
+                    contentEnd = next;
+                    contentWidth = lineWidth;
+                }
+            }
+            i = next;
+        }
+        lines.add(lineStart, Math.max(lineStart, contentEnd), contentWidth);
+        return new MeasuredText(text, font.getLineHeight(), lines.toArray());
+    }
+
+    /**
+     * @return The approximate number of cached results.
+     */
+    public long getCacheSize() {
+        return cache.size();
+    }
+
+    public void clearCache() {
+        cache.invalidateAll();
+    }
+
+    private static final class LineBuilder {
+        private int[] lines = new int[12];
+        private int size;
+
+        void add(int start, int end, int width) {
+            if (size + 3 > lines.length) {
+                lines = Arrays.copyOf(lines, lines.length * 2);
+            }
+            lines[size++] = start;
+            lines[size++] = end;
+            lines[size++] = width;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(lines, size);
+        }
+    }
+
+    private static final class Key {
+        private final String text;
+        private final GlyphMetrics font;
+        private final int wrapWidth;
+
+        Key(String text, GlyphMetrics font, int wrapWidth) {
+            this.text = text;
+            this.font = font;
+            this.wrapWidth = wrapWidth;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Key) {
+                Key key = (Key)obj;
+                return wrapWidth == key.wrapWidth && text.equals(key.text) && font.equals(key.font);
+            }
+            return super.equals(obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, font, wrapWidth);
+        }
+    }
+}